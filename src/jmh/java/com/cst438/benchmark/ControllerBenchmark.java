@@ -0,0 +1,150 @@
+package com.cst438.benchmark;
+
+import com.cst438.GradebookMain;
+import com.cst438.controller.AssignmentController;
+import com.cst438.controller.EnrollmentController;
+import com.cst438.controller.GradeController;
+import com.cst438.dto.AssignmentStudentDTO;
+import com.cst438.dto.EnrollmentDTO;
+import com.cst438.dto.GradeDTO;
+import com.cst438.service.RegistrarServiceProxy;
+import com.cst438.service.SyntheticTermSeeder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * controller hot paths called through the Spring proxies (security, transactions)
+ * against an in-memory H2 database seeded by SyntheticTermSeeder.
+ * scale is students:sections:assignmentsPerSection.  Reports ops/sec and the
+ * latency distribution (p99 in the SampleTime results); the jmh profile adds -prof gc.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args="ControllerBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ControllerBenchmark {
+
+    @Param({"2000:100:10", "20000:800:20"})
+    public String scale;
+
+    private ConfigurableApplicationContext context;
+    private GradeController gradeController;
+    private AssignmentController assignmentController;
+    private EnrollmentController enrollmentController;
+    private RegistrarServiceProxy registrar;
+
+    private int assignmentId;
+    private int sectionNo;
+    private Principal instructor;
+    private Principal student;
+    private List<List<GradeDTO>> gradeUpdates;
+    private String[] userMessages;
+    private int invocation;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(GradebookMain.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "registrar.outbox.poll-interval=60000",
+                        "test.synthetic-term.enabled=true",
+                        "logging.level.root=WARN")
+                .run();
+        // no broker during benchmarks, messages are passed to the proxy directly
+        context.getBean(RabbitListenerEndpointRegistry.class).stop();
+
+        String[] s = scale.split(":");
+        context.getBean(SyntheticTermSeeder.class).seed(
+                Integer.parseInt(s[0]), Integer.parseInt(s[1]), Integer.parseInt(s[2]), 438);
+
+        gradeController = context.getBean(GradeController.class);
+        assignmentController = context.getBean(AssignmentController.class);
+        enrollmentController = context.getBean(EnrollmentController.class);
+        registrar = context.getBean(RegistrarServiceProxy.class);
+
+        // the largest section and its first, graded, assignment
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Map<String, Object> row = jdbc.queryForMap("select s.section_no, s.instructor_email, min(a.assignment_id) assignment_id " +
+                "from section s join enrollment e on e.section_no = s.section_no join assignment a on a.section_no = s.section_no " +
+                "where s.synthetic group by s.section_no, s.instructor_email order by count(*) desc limit 1");
+        sectionNo = (Integer) row.get("SECTION_NO");
+        assignmentId = (Integer) row.get("ASSIGNMENT_ID");
+        String instructorEmail = (String) row.get("INSTRUCTOR_EMAIL");
+        Map<String, Object> user = jdbc.queryForMap("select u.id, u.email, u.password from user_table u " +
+                "where u.type = 'STUDENT' and u.synthetic order by u.id limit 1");
+
+        // controllers check authorities from the security context and ownership from the principal
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                instructorEmail, null, AuthorityUtils.createAuthorityList("SCOPE_ROLE_INSTRUCTOR", "SCOPE_ROLE_STUDENT")));
+        instructor = () -> instructorEmail;
+        student = () -> (String) user.get("EMAIL");
+
+        // two alternating score sets so every update changes the rows
+        List<GradeDTO> sheet = gradeController.getAssignmentGrades(assignmentId, instructor);
+        gradeUpdates = List.of(
+                sheet.stream().map(g -> withScore(g, 70)).toList(),
+                sheet.stream().map(g -> withScore(g, 90)).toList());
+        userMessages = new String[2];
+        for (int i = 0; i < 2; i++) {
+            userMessages[i] = "updateUser {\"id\":" + user.get("ID") + ",\"name\":\"student" + i + "\",\"email\":\"" +
+                    user.get("EMAIL") + "\",\"password\":\"" + user.get("PASSWORD") + "\",\"type\":\"STUDENT\"}";
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public List<GradeDTO> getAssignmentGrades() {
+        return gradeController.getAssignmentGrades(assignmentId, instructor);
+    }
+
+    @Benchmark
+    public int updateGrades() {
+        List<GradeDTO> update = gradeUpdates.get(invocation++ & 1);
+        gradeController.updateGrades(update, instructor);
+        return update.size();
+    }
+
+    @Benchmark
+    public List<AssignmentStudentDTO> getStudentAssignments() {
+        return assignmentController.getStudentAssignments(2025, "Fall", student);
+    }
+
+    @Benchmark
+    public List<EnrollmentDTO> getEnrollments() {
+        return enrollmentController.getEnrollments(sectionNo, instructor);
+    }
+
+    @Benchmark
+    public int receiveFromRegistrar() {
+        String message = userMessages[invocation++ & 1];
+        registrar.receiveFromRegistrar(message);
+        return message.length();
+    }
+
+    private static GradeDTO withScore(GradeDTO g, int score) {
+        return new GradeDTO(g.gradeId(), g.studentName(), g.studentEmail(), g.assignmentTitle(),
+                g.courseId(), g.sectionId(), score);
+    }
+}
@@ -0,0 +1,113 @@
+package com.cst438.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * grade columns created/sec for a section of the given size.
+ * identityPerRow is what Hibernate does with GenerationType.IDENTITY: one insert
+ * and one generated key round trip per grade, no batching.
+ * pooledSequenceBatch is GenerationType.SEQUENCE with allocationSize 50: one
+ * sequence call per 50 grades and the inserts sent as a JDBC batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeIdGenerationBenchmark {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({"30", "300", "3000"})
+    public int students;
+
+    private Connection connection;
+
+    @Setup
+    public void setup() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:gradeids;DB_CLOSE_DELAY=-1");
+        try (Statement s = connection.createStatement()) {
+            s.execute("create table grade_identity (grade_id int auto_increment primary key, " +
+                    "enrollment_id int, assignment_id int, score int)");
+            s.execute("create sequence grade_seq start with 1 increment by " + ALLOCATION_SIZE);
+            s.execute("create table grade_sequence (grade_id int primary key, " +
+                    "enrollment_id int, assignment_id int, score int)");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        try (Statement s = connection.createStatement()) {
+            s.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws Exception {
+        try (Statement s = connection.createStatement()) {
+            s.execute("truncate table grade_identity");
+            s.execute("truncate table grade_sequence");
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    public int identityPerRow() throws Exception {
+        int last = 0;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into grade_identity (enrollment_id, assignment_id, score) values (?, ?, null)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < students; i++) {
+                ps.setInt(1, i);
+                ps.setInt(2, 1);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getInt(1);
+                }
+            }
+        }
+        connection.commit();
+        return last;
+    }
+
+    @Benchmark
+    public int pooledSequenceBatch() throws Exception {
+        int next = 0;
+        int hi = 0;
+        try (PreparedStatement seq = connection.prepareStatement("select next value for grade_seq");
+             PreparedStatement ps = connection.prepareStatement(
+                     "insert into grade_sequence (grade_id, enrollment_id, assignment_id, score) values (?, ?, ?, null)")) {
+            for (int i = 0; i < students; i++) {
+                if (next == hi) {
+                    // pooled optimizer: the sequence value is the top of the next block
+                    try (ResultSet rs = seq.executeQuery()) {
+                        rs.next();
+                        hi = rs.getInt(1) + ALLOCATION_SIZE;
+                        next = hi - ALLOCATION_SIZE;
+                    }
+                }
+                ps.setInt(1, next++);
+                ps.setInt(2, i);
+                ps.setInt(3, 1);
+                ps.addBatch();
+                if ((i + 1) % ALLOCATION_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        return next;
+    }
+}
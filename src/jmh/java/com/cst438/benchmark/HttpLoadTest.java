@@ -0,0 +1,254 @@
+package com.cst438.benchmark;
+
+import com.cst438.GradebookMain;
+import com.cst438.dto.EnrollmentDTO;
+import com.cst438.service.SyntheticTermSeeder;
+import com.cst438.service.TokenService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * closed-loop HTTP load test.  every simulated client sends its next request
+ * as soon as the previous one completes, so the number of clients is the number
+ * of requests in flight.  the workload is one of
+ *
+ *   instructor      instructors cycling through GET /sections/{secNo}/enrollments,
+ *                   GET /assignments/{id}/grades and PUT /enrollments
+ *   student-list    students reading GET /assignments as a JSON list, through JPA
+ *   student-stream  the same read as newline delimited JSON, through R2DBC
+ *
+ * the application runs in this JVM on Tomcat platform threads, or with the
+ * virtual-threads profile on virtual threads (Java 21 or later).  for each level
+ * of concurrency it reports throughput, latency percentiles in milliseconds, p99
+ * per endpoint, the peak number of live platform threads and the peak active and
+ * waiting connections of the Hikari pool, sampled every 10 ms.
+ *
+ *   mvn -Pjmh test-compile exec:exec -Djmh.main=com.cst438.benchmark.HttpLoadTest -Djmh.args="platform 200,1000,4000"
+ *   mvn -Pjmh test-compile exec:exec -Djmh.main=com.cst438.benchmark.HttpLoadTest -Djmh.args="virtual 200,1000,4000"
+ *   mvn -Pjmh test-compile exec:exec -Djmh.main=com.cst438.benchmark.HttpLoadTest -Djmh.args="platform 5000 30 student-stream"
+ *
+ * an optional third argument is the measured seconds per level (30), each level
+ * starts with an unmeasured warmup of a third of that.  an optional fourth is the
+ * workload (instructor).  arguments starting with -- are passed to the application,
+ * for example --spring.datasource.hikari.maximum-pool-size=20
+ */
+public class HttpLoadTest {
+
+    // the requests a simulated client sends in turn
+    record Client(List<HttpRequest> requests) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] positional = Arrays.stream(args).filter(a -> !a.startsWith("--")).toArray(String[]::new);
+        String mode = positional.length > 0 ? positional[0] : "platform";
+        int[] levels = Arrays.stream((positional.length > 1 ? positional[1] : "200,1000,4000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int seconds = positional.length > 2 ? Integer.parseInt(positional[2]) : 30;
+        String workload = positional.length > 3 ? positional[3] : "instructor";
+        // command line arguments, so they override application.properties
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--student.r2dbc.url=r2dbc:pool:h2:mem://sa@/loadtest?maxSize=10",
+                "--registrar.outbox.poll-interval=60000",
+                "--test.synthetic-term.enabled=true",
+                "--logging.level.root=WARN"));
+        Arrays.stream(args).filter(a -> a.startsWith("--")).forEach(appArgs::add);
+        if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtual threads need Java 21 or later, running on " + Runtime.version());
+        }
+
+        // devtools would restart the application in a new class loader, calling main again
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplication application = new SpringApplication(GradebookMain.class);
+        if (mode.equals("virtual")) {
+            application.setAdditionalProfiles("virtual-threads");
+        }
+        ConfigurableApplicationContext context = application.run(appArgs.toArray(String[]::new));
+        try {
+            // no broker during the test, outbox messages stay in the outbox
+            context.getBean(RabbitListenerEndpointRegistry.class).stop();
+            // 2000 instructors, one per three sections
+            context.getBean(SyntheticTermSeeder.class).seed(20000, 6000, 5, 438);
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String[] endpoints;
+            List<Client> workloadClients;
+            switch (workload) {
+                case "instructor" -> {
+                    endpoints = new String[]{"enr", "grd", "put"};
+                    workloadClients = instructors(context, base);
+                }
+                case "student-list" -> {
+                    endpoints = new String[]{"list"};
+                    workloadClients = students(context, base, "application/json");
+                }
+                case "student-stream" -> {
+                    endpoints = new String[]{"stream"};
+                    workloadClients = students(context, base, "application/x-ndjson");
+                }
+                default -> throw new IllegalArgumentException("unknown workload " + workload);
+            }
+            HikariPoolMXBean pool = context.getBean(HikariDataSource.class).getHikariPoolMXBean();
+
+            System.out.printf("%s threads, %s workload of %d clients, Hikari pool of %d, Java %s%n", mode, workload,
+                    workloadClients.size(), context.getBean(HikariDataSource.class).getMaximumPoolSize(),
+                    Runtime.version());
+            StringBuilder header = new StringBuilder(String.format("%8s %9s %8s %8s %8s %8s %8s",
+                    "clients", "req/s", "p50", "p99", "p99.9", "max", "errors"));
+            for (String endpoint : endpoints) {
+                header.append(String.format(" %8s", "p99 " + endpoint));
+            }
+            System.out.println(header.append(String.format(" %8s %8s", "threads", "db a/w")));
+            for (int clients : levels) {
+                run(workloadClients, endpoints.length, clients, seconds / 3, pool, false);
+                run(workloadClients, endpoints.length, clients, seconds, pool, true);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static List<Client> instructors(ConfigurableApplicationContext context, String base) throws Exception {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        TokenService tokens = context.getBean(TokenService.class);
+        ObjectMapper mapper = context.getBean(ObjectMapper.class);
+        // the first section of each instructor that has students
+        Map<String, Client> byEmail = new LinkedHashMap<>();
+        for (Map<String, Object> row : jdbc.queryForList("select s.instructor_email, s.section_no, " +
+                "(select min(a.assignment_id) from assignment a where a.section_no = s.section_no) assignment_id, " +
+                "(select min(e.enrollment_id) from enrollment e where e.section_no = s.section_no) enrollment_id " +
+                "from section s where s.synthetic order by s.section_no")) {
+            String email = (String) row.get("INSTRUCTOR_EMAIL");
+            if (row.get("ENROLLMENT_ID") == null || byEmail.containsKey(email)) {
+                continue;
+            }
+            int secNo = (Integer) row.get("SECTION_NO");
+            String bearer = "Bearer " + tokens.generateToken(UsernamePasswordAuthenticationToken.authenticated(
+                    email, null, AuthorityUtils.createAuthorityList("ROLE_INSTRUCTOR")));
+            String update = mapper.writeValueAsString(List.of(new EnrollmentDTO((Integer) row.get("ENROLLMENT_ID"),
+                    "A", 0, "", "", "", "", 0, secNo, "", "", "", 0, 2025, "Fall")));
+            byEmail.put(email, new Client(List.of(
+                    HttpRequest.newBuilder(URI.create(base + "/sections/" + secNo + "/enrollments"))
+                            .header("Authorization", bearer).GET().build(),
+                    HttpRequest.newBuilder(URI.create(base + "/assignments/" + row.get("ASSIGNMENT_ID") + "/grades"))
+                            .header("Authorization", bearer).GET().build(),
+                    HttpRequest.newBuilder(URI.create(base + "/enrollments"))
+                            .header("Authorization", bearer).header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(update)).build())));
+        }
+        return new ArrayList<>(byEmail.values());
+    }
+
+    // every synthetic student, reading the Fall 2025 assignments in the given media type
+    private static List<Client> students(ConfigurableApplicationContext context, String base, String accept) {
+        TokenService tokens = context.getBean(TokenService.class);
+        List<Client> students = new ArrayList<>();
+        for (String email : context.getBean(JdbcTemplate.class).queryForList(
+                "select email from user_table where synthetic and type = 'STUDENT' order by id", String.class)) {
+            String bearer = "Bearer " + tokens.generateToken(UsernamePasswordAuthenticationToken.authenticated(
+                    email, null, AuthorityUtils.createAuthorityList("ROLE_STUDENT")));
+            students.add(new Client(List.of(HttpRequest.newBuilder(URI.create(base + "/assignments?year=2025&semester=Fall"))
+                    .header("Authorization", bearer).header("Accept", accept).GET().build())));
+        }
+        return students;
+    }
+
+    private static void run(List<Client> workloadClients, int endpointCount, int clients, int seconds,
+                            HikariPoolMXBean pool, boolean report) throws Exception {
+        // a small fixed pool for the client, so the thread count is the server's
+        ExecutorService clientThreads = Executors.newFixedThreadPool(4);
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientThreads).build();
+        Histogram all = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(5), 3);
+        Histogram[] endpoints = new Histogram[endpointCount];
+        for (int i = 0; i < endpoints.length; i++) {
+            endpoints[i] = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(5), 3);
+        }
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger inFlight = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        // peak platform threads and pool usage while the clients run
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicInteger peakThreads = new AtomicInteger();
+        AtomicInteger peakActive = new AtomicInteger();
+        AtomicInteger peakWaiting = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+            peakActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+            peakWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+        }, 0, 10, TimeUnit.MILLISECONDS);
+
+        for (int c = 0; c < clients; c++) {
+            inFlight.incrementAndGet();
+            send(http, workloadClients.get(c % workloadClients.size()), c, deadline, all, endpoints, errors, inFlight);
+        }
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        sampler.shutdownNow();
+        clientThreads.shutdown();
+        if (report) {
+            StringBuilder line = new StringBuilder(String.format("%8d %9.0f %8.1f %8.1f %8.1f %8.1f %8d", clients,
+                    all.getTotalCount() / (double) seconds, millis(all, 50), millis(all, 99), millis(all, 99.9),
+                    all.getMaxValue() / 1e6, errors.get()));
+            for (Histogram endpoint : endpoints) {
+                line.append(String.format(" %8.1f", millis(endpoint, 99)));
+            }
+            System.out.println(line.append(String.format(" %8d %5d/%d",
+                    peakThreads.get(), peakActive.get(), peakWaiting.get())));
+        }
+    }
+
+    // sends request number step of one client, and the next one when it completes
+    private static void send(HttpClient http, Client client, int step, long deadline,
+                             Histogram all, Histogram[] endpoints, AtomicLong errors, AtomicInteger inFlight) {
+        if (System.nanoTime() >= deadline) {
+            inFlight.decrementAndGet();
+            return;
+        }
+        int endpoint = step % client.requests().size();
+        long start = System.nanoTime();
+        http.sendAsync(client.requests().get(endpoint), HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            long elapsed = System.nanoTime() - start;
+            if (e != null || response.statusCode() != 200) {
+                errors.incrementAndGet();
+            } else {
+                all.recordValue(elapsed);
+                endpoints[endpoint].recordValue(elapsed);
+            }
+            send(http, client, step + 1, deadline, all, endpoints, errors, inFlight);
+        });
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cst438.benchmark;
+
+import com.cst438.dto.EnrollmentDTO;
+import com.cst438.dto.SectionDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * messages/sec for the JSON handling in RegistrarServiceProxy.
+ * newMapper* is the old code that created an ObjectMapper for every message,
+ * cached* uses one shared mapper with readers and writers created once per DTO type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrarJsonBenchmark {
+
+    private String sectionJson;
+    private EnrollmentDTO enrollment;
+    private ObjectReader sectionReader;
+    private ObjectWriter enrollmentWriter;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        sectionReader = mapper.readerFor(SectionDTO.class);
+        enrollmentWriter = mapper.writerFor(EnrollmentDTO.class);
+        sectionJson = mapper.writeValueAsString(new SectionDTO(
+                1001, 2025, "Fall", "cst438", "Software Engineering", 1,
+                "90", "B104", "M W 10-11:50", "ted", "ted@csumb.edu"));
+        enrollment = new EnrollmentDTO(
+                10001, "A", 5, "sama", "sama@csumb.edu", "cst438", "Software Engineering",
+                1, 1001, "90", "B104", "M W 10-11:50", 4, 2025, "Fall");
+    }
+
+    @Benchmark
+    public SectionDTO newMapperReceive() throws Exception {
+        return new ObjectMapper().readValue(sectionJson, SectionDTO.class);
+    }
+
+    @Benchmark
+    public SectionDTO cachedReaderReceive() throws Exception {
+        return sectionReader.readValue(sectionJson);
+    }
+
+    @Benchmark
+    public String newMapperSend() throws Exception {
+        return new ObjectMapper().writeValueAsString(enrollment);
+    }
+
+    @Benchmark
+    public String cachedWriterSend() throws Exception {
+        return enrollmentWriter.writeValueAsString(enrollment);
+    }
+}
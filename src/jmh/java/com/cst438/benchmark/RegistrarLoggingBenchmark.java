@@ -0,0 +1,93 @@
+package com.cst438.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * messages/sec for the logging done per registrar message by the listener threads.
+ * println is the old System.out.println of every payload: a synchronized, flushed
+ * write per message.  debugDisabled is log.debug("received {}", message) at the
+ * default INFO level.  asyncInfo logs every payload at INFO through the
+ * AsyncAppender from logback-spring.xml, the worst case when DEBUG is turned on.
+ * All output goes to /dev/null so only the logging path is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RegistrarLoggingBenchmark {
+
+    private static final String MESSAGE = "updateEnrollment {\"enrollmentId\":10001,\"grade\":\"A\",\"studentId\":5," +
+            "\"name\":\"sama\",\"email\":\"sama@csumb.edu\",\"courseId\":\"cst438\",\"title\":\"Software Engineering\"," +
+            "\"sectionId\":1,\"sectionNo\":1001,\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 10-11:50\"," +
+            "\"credits\":4,\"year\":2025,\"semester\":\"Fall\"}";
+
+    private PrintStream stdout;
+    private LoggerContext loggerContext;
+    private Logger debugLogger;
+    private Logger asyncLogger;
+
+    @Setup
+    public void setup() throws Exception {
+        stdout = new PrintStream(new FileOutputStream("/dev/null"), true);
+
+        loggerContext = new LoggerContext();
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %t %logger{39} : %m%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(loggerContext);
+        console.setEncoder(encoder);
+        console.setOutputStream(new FileOutputStream("/dev/null"));
+        console.start();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(console);
+        async.start();
+
+        Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(async);
+        debugLogger = loggerContext.getLogger("com.cst438.service.RegistrarServiceProxy");
+        asyncLogger = loggerContext.getLogger("com.cst438.service.RegistrarServiceProxy.async");
+    }
+
+    @TearDown
+    public void tearDown() {
+        loggerContext.stop();
+        stdout.close();
+    }
+
+    @Benchmark
+    public void println() {
+        stdout.println("received " + MESSAGE);
+    }
+
+    @Benchmark
+    public void debugDisabled() {
+        debugLogger.debug("received {}", MESSAGE);
+    }
+
+    @Benchmark
+    public void asyncInfo() {
+        asyncLogger.info("received {}", MESSAGE);
+    }
+}
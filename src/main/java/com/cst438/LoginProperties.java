@@ -0,0 +1,17 @@
+package com.cst438;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// cache of user details and bounded pool for BCrypt password checks used by /login
+@ConfigurationProperties(prefix="login")
+public record LoginProperties(
+        @DefaultValue("10000") int userCacheSize,
+        @DefaultValue("5m") Duration userCacheTtl,
+        @DefaultValue("4") int passwordThreads,
+        @DefaultValue("200") int passwordQueueSize,
+        @DefaultValue("5s") Duration passwordTimeout) {
+
+}
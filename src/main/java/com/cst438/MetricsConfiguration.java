@@ -0,0 +1,61 @@
+package com.cst438;
+
+import com.cst438.service.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(SqlStatementCounter counter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    // records gradebook.sql.statements, the number of SQL statements run by each
+    // request, tagged like http.server.requests so N+1 queries show up per endpoint.
+    // runs ahead of the security filters so the login lookups are counted too.
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> sqlStatementMetrics(SqlStatementCounter counter, MeterRegistry registry) {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                counter.reset();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    DistributionSummary.builder("gradebook.sql.statements")
+                            .description("SQL statements run by Hibernate per request")
+                            .baseUnit("statements")
+                            .tag("method", request.getMethod())
+                            .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                            .register(registry)
+                            .record(counter.count());
+                }
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -1,7 +1,15 @@
 package com.cst438;
 
+import com.cst438.service.BoundedPasswordEncoder;
+import com.cst438.service.CachingJwtDecoder;
+import com.cst438.service.LoginBusyException;
+import com.cst438.service.UserDetailsCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -16,7 +24,9 @@ import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.servlet.handler.HandlerMappingIntrospector;
 
@@ -39,9 +49,22 @@ public class SecurityConfiguration {
 
     private final UserDetailsService userDetailsService;
 
-    public SecurityConfiguration(UserDetailsService userDetailsService, RsaKeyProperties rsaKeys) {
+    private final UserDetailsCache userDetailsCache;
+
+    private final LoginProperties loginProperties;
+
+    @Value("${jwt.cache-size:10000}")
+    private long jwtCacheSize;
+
+    public SecurityConfiguration(
+            UserDetailsService userDetailsService,
+            UserDetailsCache userDetailsCache,
+            RsaKeyProperties rsaKeys,
+            LoginProperties loginProperties) {
         this.userDetailsService = userDetailsService;
+        this.userDetailsCache = userDetailsCache;
         this.rsaKeys = rsaKeys;
+        this.loginProperties = loginProperties;
     }
 
     @Bean
@@ -53,14 +76,17 @@ public class SecurityConfiguration {
     public AuthenticationProvider authenticationProvider(){
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();  //dW
         authenticationProvider.setUserDetailsService(userDetailsService);
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        // BCrypt checks run on a bounded pool, user details are cached between logins
+        authenticationProvider.setPasswordEncoder(new BoundedPasswordEncoder(passwordEncoder(), loginProperties));
+        authenticationProvider.setUserCache(userDetailsCache);
         return authenticationProvider;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(
             HttpSecurity http,
-            HandlerMappingIntrospector introspector) throws Exception {
+            HandlerMappingIntrospector introspector,
+            JwtDecoder jwtDecoder) throws Exception {
 
         http
                 .headers(headers ->
@@ -73,20 +99,44 @@ public class SecurityConfiguration {
                                 AntPathRequestMatcher.antMatcher("/h2-console/**"),
                                 AntPathRequestMatcher.antMatcher("/"),
                                 AntPathRequestMatcher.antMatcher("/exit"),
-                                AntPathRequestMatcher.antMatcher("/test/**")
+                                AntPathRequestMatcher.antMatcher("/test/**"),
+                                // health checks and the Prometheus scrape
+                                AntPathRequestMatcher.antMatcher("/actuator/health"),
+                                AntPathRequestMatcher.antMatcher("/actuator/prometheus")
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
-                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(jwtDecoder())))
+                .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt.decoder(jwtDecoder)))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .httpBasic(withDefaults());
+                .httpBasic(basic -> basic.authenticationEntryPoint(basicEntryPoint()));
 
         return http.build();
     }
 
+    // a login turned away by the busy password check pool gets 503 and Retry-After,
+    // so a client backs off instead of asking for other credentials.  any other
+    // failed login is the usual 401 with WWW-Authenticate
+    private AuthenticationEntryPoint basicEntryPoint() {
+        BasicAuthenticationEntryPoint basic = new BasicAuthenticationEntryPoint();
+        basic.setRealmName("Realm");
+        String retryAfter = String.valueOf(Math.max(1, loginProperties.passwordTimeout().toSeconds()));
+        return (request, response, e) -> {
+            if (e instanceof LoginBusyException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            } else {
+                basic.commence(request, response, e);
+            }
+        };
+    }
+
     @Bean
-    JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(rsaKeys.publicKey()).build();
+    JwtDecoder jwtDecoder(MeterRegistry registry) {
+        // tokens are verified once and then served from a cache until they expire
+        return new CachingJwtDecoder(
+                NimbusJwtDecoder.withPublicKey(rsaKeys.publicKey()).build(),
+                jwtCacheSize,
+                registry);
     }
 
     @Bean
@@ -0,0 +1,24 @@
+package com.cst438;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// the virtual-threads profile, see application-virtual-threads.properties
+@Configuration
+@Profile("virtual-threads")
+public class ThreadingConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfiguration.class);
+
+    // spring.threads.virtual.enabled has no effect before Java 21
+    @PostConstruct
+    void checkRuntime() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("virtual-threads profile is active but Java {} has no virtual threads, using platform threads",
+                    Runtime.version().feature());
+        }
+    }
+}
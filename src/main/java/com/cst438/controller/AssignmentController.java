@@ -4,8 +4,12 @@ import com.cst438.domain.*;
 import com.cst438.dto.AssignmentDTO;
 import com.cst438.dto.AssignmentStudentDTO;
 import com.cst438.dto.SectionDTO;
+import com.cst438.service.GradeNotifier;
+import com.cst438.service.StudentAssignmentReader;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +17,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
 
 
 import java.security.Principal;
@@ -25,19 +31,19 @@ public class AssignmentController {
 
     private final SectionRepository sectionRepository;
     private final AssignmentRepository assignmentRepository;
-    private final GradeRepository gradeRepository;
-    private final UserRepository userRepository;
+    private final StudentAssignmentReader studentAssignmentReader;
+    private final GradeNotifier gradeNotifier;
 
     public AssignmentController(
             SectionRepository sectionRepository,
             AssignmentRepository assignmentRepository,
-            GradeRepository gradeRepository,
-            UserRepository userRepository
+            StudentAssignmentReader studentAssignmentReader,
+            GradeNotifier gradeNotifier
     ) {
         this.sectionRepository = sectionRepository;
         this.assignmentRepository = assignmentRepository;
-        this.gradeRepository = gradeRepository;
-        this.userRepository = userRepository;
+        this.studentAssignmentReader = studentAssignmentReader;
+        this.gradeNotifier = gradeNotifier;
     }
 
     // get Sections for an instructor
@@ -49,27 +55,9 @@ public class AssignmentController {
             Principal principal) {
         // return the Sections that have instructorEmail for the 
         // logged in instructor user for the given term.
+        // sections and instructor name are read with one query.
         String email = principal.getName();
-        List<Section> sections = sectionRepository.findByInstructorEmailAndYearAndSemester(email, year, semester);
-        return sections.stream()
-                .map(s -> {
-                    User instr = userRepository.findByEmail(s.getInstructorEmail());
-                    String name = instr != null ? instr.getName() : "";
-                    return new SectionDTO(
-                            s.getSectionNo(),
-                            s.getTerm().getYear(),
-                            s.getTerm().getSemester(),
-                            s.getCourse().getCourseId(),
-                            s.getCourse().getTitle(),
-                            s.getSectionId(),
-                            s.getBuilding(),
-                            s.getRoom(),
-                            s.getTimes(),
-                            name,
-                            s.getInstructorEmail()
-                    );
-                })
-                .toList();
+        return sectionRepository.findSectionDTOsByInstructorEmailAndYearAndSemester(email, year, semester);
     }
 
     // instructor lists assignments for a section.
@@ -205,24 +193,32 @@ public class AssignmentController {
 
         //  return AssignmentStudentDTOs with scores of a 
         //  Grade entity exists.
-        //  hint: use the GradeRepository findByStudentEmailAndAssignmentId
         //  If assignment has not been graded, return a null score.
+        //  assignments and scores are read with a single query.
         String email = principal.getName();
-        List<Assignment> assignments = assignmentRepository.findByStudentEmailAndYearAndSemester(email, year, semester);
-        return assignments.stream()
-                .map(a -> {
-                    Grade g = gradeRepository.findByStudentEmailAndAssignmentId(email, a.getAssignmentId());
-                    Integer score = g != null ? g.getScore() : null;
-                    return new AssignmentStudentDTO(
-                            a.getAssignmentId(),
-                            a.getTitle(),
-                            a.getDueDate(),
-                            a.getSection().getCourse().getCourseId(),
-                            a.getSection().getSectionId(),
-                            score
-                    );
-                })
-                .toList();
+        return assignmentRepository.findStudentAssignmentsByStudentEmailAndYearAndSemester(email, year, semester);
     }
-}
 
+    // the same list streamed as newline delimited JSON, for Accept: application/x-ndjson.
+    // read through R2DBC, the request thread is released while the query runs.
+    @GetMapping(value = "/assignments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_STUDENT')")
+    public Flux<AssignmentStudentDTO> streamStudentAssignments(
+            @RequestParam("year") int year,
+            @RequestParam("semester") String semester,
+            Principal principal) {
+        return studentAssignmentReader.findStudentAssignments(principal.getName(), year, semester);
+    }
+
+    // student subscribes to changes of their scores and final grades as server-sent
+    // events: "assignment" with an AssignmentStudentDTO, "enrollment" with an
+    // EnrollmentDTO.  sent when the change commits, see GradeNotifier.
+    // 404 without a body when the user of the token no longer exists
+    @GetMapping(value = "/assignments/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_STUDENT')")
+    public ResponseEntity<SseEmitter> subscribeToGradeChanges(Principal principal) {
+        return gradeNotifier.subscribe(principal.getName())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -2,38 +2,47 @@ package com.cst438.controller;
 
 import com.cst438.domain.*;
 import com.cst438.dto.EnrollmentDTO;
-import com.cst438.service.RegistrarServiceProxy;
+import com.cst438.service.GradeNotifier;
+import com.cst438.service.RegistrarOutbox;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 public class EnrollmentController {
 
     private final EnrollmentRepository enrollmentRepository;
     private final SectionRepository sectionRepository;
-    private final RegistrarServiceProxy registrar;
+    private final RegistrarOutbox registrarOutbox;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EnrollmentController (
             EnrollmentRepository enrollmentRepository,
             SectionRepository sectionRepository,
-            RegistrarServiceProxy registrar
+            RegistrarOutbox registrarOutbox,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.enrollmentRepository = enrollmentRepository;
         this.sectionRepository = sectionRepository;
-        this.registrar = registrar;
+        this.registrarOutbox = registrarOutbox;
+        this.eventPublisher = eventPublisher;
     }
 
 
     // instructor gets student enrollments with grades for a section
     @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
     @GetMapping("/sections/{sectionNo}/enrollments")
+    @Transactional(readOnly = true)
     public List<EnrollmentDTO> getEnrollments(
             @PathVariable("sectionNo") int sectionNo, Principal principal ) {
 				
@@ -77,7 +86,9 @@ public class EnrollmentController {
     // instructor updates enrollment grades
     @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
     @PutMapping("/enrollments")
+    @Transactional
     public void updateEnrollmentGrade(@Valid @RequestBody List<EnrollmentDTO> dtoList, Principal principal) {
+        List<GradeNotifier.Change> changed = new ArrayList<>();
 		// for each EnrollmentDTO
         for(EnrollmentDTO enrollmentDTO: dtoList){
             Enrollment enrollment = enrollmentRepository.findById(enrollmentDTO.enrollmentId()).orElse(null);
@@ -90,12 +101,17 @@ public class EnrollmentController {
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Logged in user is not instructor for the given section");
             }
             //    update the enrollment grade
+            if (!Objects.equals(enrollment.getGrade(), enrollmentDTO.grade())) {
+                changed.add(new GradeNotifier.Change(enrollment.getEnrollmentId(), enrollment.getStudent().getId()));
+            }
             enrollment.setGrade(enrollmentDTO.grade());
             enrollmentRepository.save(enrollment);
-            //    send message to Registrar service for grade update
-
-            registrar.sendMessage("updateEnrollment", enrollmentDTO);
+            //    send message to Registrar service for grade update.
+            //    the message is stored in the outbox in this transaction and
+            //    published in the background after the commit.
+            registrarOutbox.enqueue("updateEnrollment", enrollmentDTO);
         }
-       
+        // the students are sent the new final grades after the commit
+        eventPublisher.publishEvent(new GradeNotifier.FinalGradesChanged(changed));
     }
 }
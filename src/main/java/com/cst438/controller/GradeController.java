@@ -1,31 +1,80 @@
 package com.cst438.controller;
 
 import com.cst438.domain.*;
+import com.cst438.dto.AssignmentStatisticsDTO;
 import com.cst438.dto.GradeDTO;
+import com.cst438.dto.GradebookCellDTO;
+import com.cst438.dto.GradebookDTO;
+import com.cst438.service.GradeNotifier;
+import com.cst438.service.GradeStatistics;
 import jakarta.validation.Valid;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @RestController
 public class GradeController {
+    private static final int GRADE_SHEET_ATTEMPTS = 3;
+
     private final AssignmentRepository assignmentRepository;
+    private final EnrollmentRepository enrollmentRepository;
     private final GradeRepository gradeRepository;
+    private final SectionRepository sectionRepository;
+    private final GradeStatistics gradeStatistics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
 
     public GradeController (
             AssignmentRepository assignmentRepository,
-            GradeRepository gradeRepository
+            EnrollmentRepository enrollmentRepository,
+            GradeRepository gradeRepository,
+            SectionRepository sectionRepository,
+            GradeStatistics gradeStatistics,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
     ) {
         this.assignmentRepository = assignmentRepository;
+        this.enrollmentRepository = enrollmentRepository;
         this.gradeRepository = gradeRepository;
+        this.sectionRepository = sectionRepository;
+        this.gradeStatistics = gradeStatistics;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
     @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
     @GetMapping("/assignments/{assignmentId}/grades")
     public List<GradeDTO> getAssignmentGrades(@PathVariable("assignmentId") int assignmentId, Principal principal) {
+        // when a concurrent request for the same assignment inserts some of the
+        // missing grades first, the unique index on grade(enrollment_id, assignment_id)
+        // rejects this insert.  the transaction is run again and finds their grades
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> gradeSheet(assignmentId, principal));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == GRADE_SHEET_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private List<GradeDTO> gradeSheet(int assignmentId, Principal principal) {
 		// Check that the Section of the assignment belongs to the 
 		// logged in instructor
        Assignment assignment = assignmentRepository.findById(assignmentId).orElse(null);
@@ -39,47 +88,149 @@ public class GradeController {
         // return a list of GradeDTOs containing student scores for an assignment
         // if a Grade entity does not exist, then create the Grade entity 
 		// with a null score and return the gradeId.
-       return section.getEnrollments().stream().map((e) ->{
-            User student = e.getStudent();
-            Grade grade = gradeRepository.findByStudentEmailAndAssignmentId(e.getStudent().getEmail(),assignmentId);
-            if (grade == null){
-                grade = new Grade();
-                grade.setAssignment(assignment);
-                grade.setEnrollment(e);
-                grade.setScore(null);
-                gradeRepository.save(grade);
-            }
-            return new GradeDTO(
-                    grade.getGradeId(),
-                    student.getName(),
-                    student.getEmail(),
-                    assignment.getTitle(),
-                    section.getCourse().getCourseId(),
-                    section.getSectionId(),
-                    grade.getScore()
-            );
-        }).toList();
+        // missing grades are created as one batched insert (ids come from the
+        // pooled grade_seq) and the grade sheet is read with one query,
+        // regardless of the size of the section.  the grades only need the
+        // enrollment ids, the enrollments are not loaded
+       List<Grade> missing = new ArrayList<>();
+       for (int enrollmentId : enrollmentRepository.findEnrollmentIdsWithoutGrade(assignmentId)) {
+           Grade grade = new Grade();
+           grade.setAssignment(assignment);
+           grade.setEnrollment(enrollmentRepository.getReferenceById(enrollmentId));
+           grade.setScore(null);
+           missing.add(grade);
+       }
+       gradeRepository.saveAll(missing);
+       return gradeRepository.findGradeSheetByAssignmentId(assignmentId);
     }
 
 
     @PutMapping("/grades")
     @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
+    @Transactional
     public void updateGrades(@Valid @RequestBody List<GradeDTO> dtoList, Principal principal) {
+        if (dtoList.isEmpty()) {
+            return;
+        }
+        // lock the grades in the request, so the old scores passed to the
+        // statistics are the committed ones, then load their enrollments and
+        // sections without locking them.  other instructors' updates of grades
+        // in the same section are not blocked
+        List<Integer> gradeIds = dtoList.stream().map(GradeDTO::gradeId).toList();
+        gradeRepository.lockByGradeIdIn(gradeIds);
+        Map<Integer, Grade> grades = new HashMap<>();
+        for (Grade g : gradeRepository.findByGradeIdIn(gradeIds)) {
+            grades.put(g.getGradeId(), g);
+        }
+        Set<Integer> authorizedSections = new HashSet<>();
+        List<GradeStatistics.ScoreChange> changes = new ArrayList<>();
+        List<GradeNotifier.Change> changed = new ArrayList<>();
 		// for each GradeDTO
         for(GradeDTO gradeDTO: dtoList){
-            Grade grade = gradeRepository.findById(gradeDTO.gradeId()).orElse(null);
+            Grade grade = grades.get(gradeDTO.gradeId());
             if(grade == null){
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "grade id not found");
             }
-            // check that the logged in instructor is the owner of the section
-            Enrollment enrollment = grade.getEnrollment();
-            Section section = enrollment.getSection();
-            if(!section.getInstructorEmail().equals(principal.getName())){
+            // check that the logged in instructor is the owner of the section,
+            // once for each distinct section in the request
+            Section section = grade.getEnrollment().getSection();
+            if(authorizedSections.add(section.getSectionNo())
+                    && !section.getInstructorEmail().equals(principal.getName())){
                 throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Logged in user is not instructor for the given section");
             }
-            // update the assignment score
+            // update the assignment score.  changes are written as batched
+            // updates when the transaction commits.
+            changes.add(new GradeStatistics.ScoreChange(grade.getAssignment().getAssignmentId(), grade.getScore(), gradeDTO.score()));
+            if (!Objects.equals(grade.getScore(), gradeDTO.score())) {
+                changed.add(new GradeNotifier.Change(grade.getGradeId(), grade.getEnrollment().getStudent().getId()));
+            }
             grade.setScore(gradeDTO.score());
-            gradeRepository.save(grade);
         }
+        gradeStatistics.apply(changes);
+        // the students are sent the new scores after the commit.  the student
+        // id is read from the proxy, the student is not loaded
+        eventPublisher.publishEvent(new GradeNotifier.GradesChanged(changed));
+    }
+
+    // instructor gets the score statistics of an assignment.  read from the
+    // grade_histogram rows of the assignment, see GradeStatistics
+    @GetMapping("/assignments/{assignmentId}/statistics")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
+    public AssignmentStatisticsDTO getAssignmentStatistics(@PathVariable("assignmentId") int assignmentId, Principal principal) {
+        Assignment assignment = assignmentRepository.findById(assignmentId).orElse(null);
+        if (assignment == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "assignment id not found");
+        }
+        Section section = assignment.getSection();
+        if (!section.getInstructorEmail().equals(principal.getName())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Logged in user is not instructor for the given assignment");
+        }
+        int enrolled = enrollmentRepository.countBySectionNo(section.getSectionNo());
+        return gradeStatistics.statistics(assignmentId, assignment.getTitle(), enrolled);
+    }
+
+    // instructor gets the gradebook of a section, all students x all assignments,
+    // with three queries: the section, its assignments and one scan of the
+    // roster joined to the grades.
+    @GetMapping("/sections/{secNo}/gradebook")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
+    public GradebookDTO getGradebook(@PathVariable("secNo") int secNo, Principal principal) {
+        Section section = sectionRepository.findById(secNo).orElse(null);
+        if (section == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "section number not found");
+        }
+        if (!section.getInstructorEmail().equals(principal.getName())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Logged in user is not instructor for the given section");
+        }
+        List<Assignment> assignments = assignmentRepository.findBySectionNoOrderByDueDate(secNo);
+        int columns = assignments.size();
+        int[] assignmentIds = new int[columns];
+        String[] assignmentTitles = new String[columns];
+        String[] dueDates = new String[columns];
+        Map<Integer, Integer> column = new HashMap<>();
+        for (int j = 0; j < columns; j++) {
+            Assignment a = assignments.get(j);
+            assignmentIds[j] = a.getAssignmentId();
+            assignmentTitles[j] = a.getTitle();
+            dueDates[j] = a.getDueDate() == null ? "" : a.getDueDate().toString();
+            column.put(a.getAssignmentId(), j);
+        }
+
+        List<GradebookCellDTO> cells = gradeRepository.findGradebookCellsBySectionNo(secNo);
+        int rows = 0;
+        for (int k = 0; k < cells.size(); k++) {
+            if (k == 0 || cells.get(k).enrollmentId() != cells.get(k - 1).enrollmentId()) {
+                rows++;
+            }
+        }
+        int[] enrollmentIds = new int[rows];
+        String[] studentNames = new String[rows];
+        String[] studentEmails = new String[rows];
+        int[] scores = new int[rows * columns];
+        // every cell starts out missing and is cleared when its score is found
+        byte[] missing = new byte[(rows * columns + 7) / 8];
+        Arrays.fill(missing, (byte) 0xff);
+        int row = -1;
+        for (GradebookCellDTO cell : cells) {
+            if (row < 0 || enrollmentIds[row] != cell.enrollmentId()) {
+                row++;
+                enrollmentIds[row] = cell.enrollmentId();
+                studentNames[row] = cell.studentName();
+                studentEmails[row] = cell.studentEmail();
+            }
+            Integer j = cell.assignmentId() == null ? null : column.get(cell.assignmentId());
+            if (j != null && cell.score() != null) {
+                int k = row * columns + j;
+                scores[k] = cell.score();
+                missing[k >> 3] &= (byte) ~(1 << (k & 7));
+            }
+        }
+        // bits past the last cell are left clear
+        if ((rows * columns & 7) != 0) {
+            missing[missing.length - 1] &= (byte) ((1 << (rows * columns & 7)) - 1);
+        }
+        return new GradebookDTO(secNo, section.getCourse().getCourseId(), section.getSectionId(),
+                assignmentIds, assignmentTitles, dueDates,
+                enrollmentIds, studentNames, studentEmails, scores, missing);
     }
 }
@@ -0,0 +1,93 @@
+package com.cst438.controller;
+
+import com.cst438.domain.Section;
+import com.cst438.domain.SectionRepository;
+import com.cst438.domain.Term;
+import com.cst438.domain.TermRepository;
+import com.cst438.service.GradeExporter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.security.Principal;
+
+@RestController
+public class GradeExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private final SectionRepository sectionRepository;
+    private final TermRepository termRepository;
+    private final GradeExporter exporter;
+
+    public GradeExportController(
+            SectionRepository sectionRepository,
+            TermRepository termRepository,
+            GradeExporter exporter
+    ) {
+        this.sectionRepository = sectionRepository;
+        this.termRepository = termRepository;
+        this.exporter = exporter;
+    }
+
+    // instructor downloads all grades of a section, format is csv or ndjson.
+    // checks are done before the response starts, the rows are written by
+    // an async thread while they are read from the database.
+    @GetMapping("/sections/{secNo}/grades/export")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
+    public ResponseEntity<StreamingResponseBody> exportSection(
+            @PathVariable("secNo") int secNo,
+            @RequestParam(name = "format", defaultValue = "csv") String format,
+            Principal principal) {
+        GradeExporter.Format f = parseFormat(format);
+        Section section = sectionRepository.findById(secNo).orElse(null);
+        if (section == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "section number not found");
+        }
+        if (!section.getInstructorEmail().equals(principal.getName())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Logged in user is not instructor for the given section");
+        }
+        return stream("section-" + secNo, f, out -> exporter.exportSection(secNo, f, out));
+    }
+
+    // admin downloads the grades of every section in a term
+    @GetMapping("/grades/export")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTerm(
+            @RequestParam("year") int year,
+            @RequestParam("semester") String semester,
+            @RequestParam(name = "format", defaultValue = "csv") String format) {
+        GradeExporter.Format f = parseFormat(format);
+        Term term = termRepository.findByYearAndSemester(year, semester);
+        if (term == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "term not found");
+        }
+        int termId = term.getTermId();
+        return stream(semester + "-" + year, f, out -> exporter.exportTerm(termId, f, out));
+    }
+
+    private static GradeExporter.Format parseFormat(String format) {
+        return switch (format.toLowerCase()) {
+            case "csv" -> GradeExporter.Format.CSV;
+            case "ndjson" -> GradeExporter.Format.NDJSON;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        };
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(String name, GradeExporter.Format format, StreamingResponseBody body) {
+        boolean csv = format == GradeExporter.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"grades-" + name + (csv ? ".csv" : ".ndjson") + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,60 @@
+package com.cst438.controller;
+
+import com.cst438.domain.Assignment;
+import com.cst438.domain.AssignmentRepository;
+import com.cst438.domain.Section;
+import com.cst438.dto.GradeImportDTO;
+import com.cst438.service.GradeImporter;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.Principal;
+
+@RestController
+public class GradeImportController {
+
+    private final AssignmentRepository assignmentRepository;
+    private final GradeImporter importer;
+
+    public GradeImportController(AssignmentRepository assignmentRepository, GradeImporter importer) {
+        this.assignmentRepository = assignmentRepository;
+        this.importer = importer;
+    }
+
+    // instructor uploads the scores of an assignment as a CSV file with
+    // studentEmail and score columns.  returns a report with an entry for
+    // each rejected row, nothing is saved unless every row is valid.
+    @PostMapping(value = "/assignments/{assignmentId}/grades/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_INSTRUCTOR')")
+    public GradeImportDTO importGrades(
+            @PathVariable("assignmentId") int assignmentId,
+            @RequestParam("file") MultipartFile file,
+            Principal principal) {
+        Assignment assignment = assignmentRepository.findById(assignmentId).orElse(null);
+        if (assignment == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "assignment id not found");
+        }
+        Section section = assignment.getSection();
+        if (!section.getInstructorEmail().equals(principal.getName())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Logged in user is not instructor for the given section");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return importer.importGrades(assignmentId, section.getSectionNo(), in);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (DuplicateKeyException e) {
+            // another request added a grade for one of the students meanwhile
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "grades were changed during the import, try again");
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package com.cst438.controller;
 
-import com.cst438.domain.User;
-import com.cst438.domain.UserRepository;
 import com.cst438.dto.LoginDTO;
 import com.cst438.service.TokenService;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -12,20 +11,24 @@ import org.springframework.web.bind.annotation.RestController;
 public class LoginController {
 
 	private final TokenService tokenService;
-	private final UserRepository userRepository;
 
-	public LoginController(TokenService tokenService, UserRepository userRepository) {
+	public LoginController(TokenService tokenService) {
 		this.tokenService = tokenService;
-		this.userRepository = userRepository;
 	}
 
 	// generate JWT token containing user login email and role of STUDENT, ADMIN or INSTRUCTOR
 	@GetMapping("/login")
 	public LoginDTO token(Authentication authentication) {
-		String name = authentication.getName();
-		User user = userRepository.findByEmail(name);
+		// the user type is in the ROLE_ authority (SCOPE_ROLE_ for a JWT),
+		// so the user does not have to be read again
+		String type = authentication.getAuthorities().stream()
+				.map(GrantedAuthority::getAuthority)
+				.filter(a -> a.startsWith("ROLE_") || a.startsWith("SCOPE_ROLE_"))
+				.map(a -> a.substring(a.indexOf("ROLE_") + "ROLE_".length()))
+				.findFirst()
+				.orElse("");
 		String token = tokenService.generateToken(authentication);
-		return new LoginDTO(token, user.getType());
+		return new LoginDTO(token, type);
 	}
 
 }
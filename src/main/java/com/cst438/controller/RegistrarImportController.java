@@ -0,0 +1,37 @@
+package com.cst438.controller;
+
+import com.cst438.dto.RegistrarImportDTO;
+import com.cst438.service.RegistrarImporter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+public class RegistrarImportController {
+
+    private final RegistrarImporter importer;
+
+    public RegistrarImportController(RegistrarImporter importer) {
+        this.importer = importer;
+    }
+
+    // admin loads a registrar snapshot (NDJSON of terms, courses, sections,
+    // users and enrollments) to bootstrap a new gradebook node.
+    // the body is streamed, see RegistrarImporter for the format.
+    // a line that cannot be read or that the database rejects is a 400 naming the line.
+    @PostMapping(value = "/registrar/import", consumes = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('SCOPE_ROLE_ADMIN')")
+    public RegistrarImportDTO importSnapshot(InputStream body) {
+        try {
+            return importer.importSnapshot(body);
+        } catch (IllegalArgumentException | DataIntegrityViolationException | IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.cst438.controller;
+
+import com.cst438.service.SyntheticTermSeeder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+// generates and removes a large synthetic term for load testing.  like the rest
+// of /test it needs no login, so it only exists when test.synthetic-term.enabled
+// is true, which it is not by default
+@RestController
+@RequestMapping("/test/synthetic")
+@ConditionalOnProperty(name = "test.synthetic-term.enabled", havingValue = "true")
+public class SyntheticTermController {
+
+    private final SyntheticTermSeeder seeder;
+
+    public SyntheticTermController(SyntheticTermSeeder seeder) {
+        this.seeder = seeder;
+    }
+
+    // e.g. /test/synthetic/seed?students=50000&sections=2000&assignmentsPerSection=30
+    @PostMapping("/seed")
+    public ResponseEntity<String> seed(
+            @RequestParam("students") int students,
+            @RequestParam("sections") int sections,
+            @RequestParam(name = "assignmentsPerSection", defaultValue = "10") int assignmentsPerSection,
+            @RequestParam(name = "seed", defaultValue = "438") long seed) {
+        try {
+            SyntheticTermSeeder.Summary summary = seeder.seed(students, sections, assignmentsPerSection, seed);
+            return ResponseEntity.ok("Synthetic term seeded successfully: " + summary);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error seeding data: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/reset")
+    public ResponseEntity<String> reset() {
+        try {
+            seeder.reset();
+            return ResponseEntity.ok("Synthetic term reset successfully");
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Error resetting data: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.cst438.controller;
 
+import com.cst438.service.ReferenceDataCache;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,11 +12,15 @@ import org.springframework.http.ResponseEntity;
 public class TestDataController {
 
     private final JdbcTemplate jdbc;
+    private final ReferenceDataCache referenceDataCache;
 
-    public TestDataController(JdbcTemplate jdbc) {
+    public TestDataController(JdbcTemplate jdbc, ReferenceDataCache referenceDataCache) {
         this.jdbc = jdbc;
+        this.referenceDataCache = referenceDataCache;
     }
 
+    // seeds the three students used by the system tests.  a large synthetic
+    // term for load testing is seeded by SyntheticTermController
     @PostMapping("/seed")
     public ResponseEntity<String> seed() {
         try {
@@ -31,7 +36,7 @@ public class TestDataController {
               """);
 
             jdbc.update("""
-              INSERT INTO course VALUES ('cst599', 'Capstone', 4)
+              INSERT INTO course (course_id, title, credits) VALUES ('cst599', 'Capstone', 4)
               """);
 
             jdbc.update("""
@@ -61,6 +66,8 @@ public class TestDataController {
             jdbc.update("DELETE FROM section WHERE section_no = 2");
             jdbc.update("DELETE FROM course WHERE course_id IN ('cst499', 'cst599')");
             jdbc.update("DELETE FROM user_table WHERE id IN (5, 6, 7)");
+            // section 2 and the courses were deleted with JDBC
+            referenceDataCache.evictAll();
 
             return ResponseEntity.ok("Test data reset successfully");
         } catch (Exception e) {
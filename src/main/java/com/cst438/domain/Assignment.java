@@ -8,12 +8,14 @@ import java.util.List;
 
 @Entity
 public class Assignment {
+    // pooled sequence ids, allocationSize must match the increment of assignment_seq in schema.sql
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="assignment_seq")
+    @SequenceGenerator(name="assignment_seq", sequenceName="assignment_seq", initialValue=6000, allocationSize=50)
     private int assignmentId;
     private String title;
     private Date dueDate;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="section_no", nullable=false)
     private Section section;
 
@@ -1,13 +1,23 @@
 package com.cst438.domain;
 
+import com.cst438.dto.AssignmentStudentDTO;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import java.util.List;
 
 public interface AssignmentRepository extends CrudRepository<Assignment, Integer> {
 
-    @Query("select a from Assignment a join a.section.term t join a.section.enrollments e where e.student.email=:email and t.year=:year and t.semester=:semester order by a.dueDate")
-    List<Assignment> findByStudentEmailAndYearAndSemester(String email, int year, String semester);
+    // student's assignments for a term with the score, if graded, in one query.
+    // the student is matched through a subquery so H2 starts from the student's
+    // enrollments, not from every enrollment of the term
+    @Query("select new com.cst438.dto.AssignmentStudentDTO(a.assignmentId, a.title, a.dueDate, c.courseId, s.sectionId, g.score) " +
+            "from Enrollment e join e.section s join s.course c join s.term t join Assignment a on a.section=s " +
+            "left join Grade g on g.assignment=a and g.enrollment=e " +
+            "where e.student.id in (select st.id from User st where st.email=:email) " +
+            "and t.year=:year and t.semester=:semester order by a.dueDate")
+    List<AssignmentStudentDTO> findStudentAssignmentsByStudentEmailAndYearAndSemester(String email, int year, String semester);
 
+    @Query("select a from Assignment a where a.section.sectionNo=:secNo order by a.dueDate, a.assignmentId")
+    List<Assignment> findBySectionNoOrderByDueDate(int secNo);
 
 }
@@ -2,17 +2,19 @@ package com.cst438.domain;
 
 import jakarta.persistence.*;
 
+// fetch plan of the section roster, the students are loaded with the enrollments
+@NamedEntityGraph(name = "Enrollment.student", attributeNodes = @NamedAttributeNode("student"))
 @Entity
 public class Enrollment {
     @Id
     int enrollmentId;
     String grade;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="section_no", nullable=false)
     private Section section;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="user_id", nullable=false)
     private User student;
 
@@ -1,11 +1,28 @@
 package com.cst438.domain;
 
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
 
-public interface EnrollmentRepository extends CrudRepository<Enrollment, Integer> {
+public interface EnrollmentRepository extends JpaRepository<Enrollment, Integer> {
+    // enrollments of a section with their students in one query
+    @EntityGraph("Enrollment.student")
     @Query("select e from Enrollment e where e.section.sectionNo=:sectionNo order by e.student.name")
     List<Enrollment> findEnrollmentsBySectionNoOrderByStudentName(int sectionNo);
+
+    // ids of the enrollments in the assignment's section that do not have a Grade for it
+    @Query("select e.enrollmentId from Enrollment e, Assignment a where a.assignmentId=:assignmentId and e.section=a.section " +
+            "and not exists (select g from Grade g where g.enrollment=e and g.assignment=a)")
+    List<Integer> findEnrollmentIdsWithoutGrade(int assignmentId);
+
+    // enrollments with the student, section, course and term in one query,
+    // to push the changed final grades to the students
+    @Query("select e from Enrollment e join fetch e.student join fetch e.section s join fetch s.course " +
+            "join fetch s.term where e.enrollmentId in :enrollmentIds")
+    List<Enrollment> findWithStudentByEnrollmentIdIn(List<Integer> enrollmentIds);
+
+    @Query("select count(e) from Enrollment e where e.section.sectionNo=:sectionNo")
+    int countBySectionNo(int sectionNo);
 }
@@ -2,16 +2,23 @@ package com.cst438.domain;
 
 import jakarta.persistence.*;
 
+// fetch plan of the grade updates, each grade with its enrollment and section
+@NamedEntityGraph(name = "Grade.enrollmentSection",
+        attributeNodes = @NamedAttributeNode(value = "enrollment", subgraph = "enrollment"),
+        subgraphs = @NamedSubgraph(name = "enrollment", attributeNodes = @NamedAttributeNode("section")))
 @Entity
 public class Grade {
+    // pooled sequence ids so new grades can be inserted in JDBC batches.
+    // allocationSize must match the increment of grade_seq in schema.sql
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy=GenerationType.SEQUENCE, generator="grade_seq")
+    @SequenceGenerator(name="grade_seq", sequenceName="grade_seq", initialValue=12000, allocationSize=50)
     private int gradeId;
     private Integer score;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="assignment_id", nullable=false)
     private Assignment assignment;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="enrollment_id", nullable=false)
     private  Enrollment enrollment;
 
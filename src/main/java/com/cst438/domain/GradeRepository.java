@@ -1,10 +1,48 @@
 package com.cst438.domain;
 
+import com.cst438.dto.GradeDTO;
+import com.cst438.dto.GradebookCellDTO;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.List;
+
 public interface GradeRepository extends CrudRepository<Grade, Integer> {
 
     @Query("select g from Grade g where g.assignment.assignmentId=:assignmentId and g.enrollment.student.email=:email")
     Grade findByStudentEmailAndAssignmentId(String email, int assignmentId);
+
+    // roster of the assignment's section joined to the grades, as GradeDTOs
+    @Query("select new com.cst438.dto.GradeDTO(g.gradeId, st.name, st.email, a.title, c.courseId, s.sectionId, g.score) " +
+            "from Grade g join g.enrollment e join e.student st join g.assignment a join a.section s join s.course c " +
+            "where a.assignmentId=:assignmentId order by st.name")
+    List<GradeDTO> findGradeSheetByAssignmentId(int assignmentId);
+
+    // locks the grade rows, and only those, for update.  rows are locked in
+    // grade id order.  the grades are loaded without their associations
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select g from Grade g where g.gradeId in :gradeIds order by g.gradeId")
+    List<Grade> lockByGradeIdIn(List<Integer> gradeIds);
+
+    // grades with their enrollment and section with one IN query, not locked.
+    // after lockByGradeIdIn the grades are the locked instances
+    @EntityGraph("Grade.enrollmentSection")
+    @Query("select g from Grade g where g.gradeId in :gradeIds")
+    List<Grade> findByGradeIdIn(List<Integer> gradeIds);
+
+    // grades with the student and the assignment's section and course, in one
+    // query, to push the changed scores to the students
+    @Query("select g from Grade g join fetch g.enrollment e join fetch e.student " +
+            "join fetch g.assignment a join fetch a.section s join fetch s.course where g.gradeId in :gradeIds")
+    List<Grade> findWithStudentByGradeIdIn(List<Integer> gradeIds);
+
+    // roster of a section in student name order with the grades of each enrollment,
+    // the rows of one enrollment are adjacent
+    @Query("select new com.cst438.dto.GradebookCellDTO(e.enrollmentId, st.name, st.email, g.assignment.assignmentId, g.score) " +
+            "from Enrollment e join e.student st left join Grade g on g.enrollment=e " +
+            "where e.section.sectionNo=:secNo order by st.name, e.enrollmentId")
+    List<GradebookCellDTO> findGradebookCellsBySectionNo(int secNo);
 }
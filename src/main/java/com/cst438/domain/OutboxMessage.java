@@ -0,0 +1,50 @@
+package com.cst438.domain;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+// message for the registrar service, written in the same transaction as
+// the data change and published later by RegistrarOutbox
+@Entity
+@Table(name="registrar_outbox")
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    private int outboxId;
+    private String command;
+    private String payload;
+    private Timestamp createdAt;
+
+    public int getOutboxId() {
+        return outboxId;
+    }
+
+    public void setOutboxId(int outboxId) {
+        this.outboxId = outboxId;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.cst438.domain;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface OutboxMessageRepository extends CrudRepository<OutboxMessage, Integer> {
+
+    // oldest pending messages first
+    List<OutboxMessage> findByOrderByOutboxIdAsc(Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("delete from OutboxMessage m where m.outboxId in :outboxIds")
+    int deleteByOutboxIdIn(List<Integer> outboxIds);
+}
@@ -1,23 +1,28 @@
 package com.cst438.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
+// changed only by registrar messages, kept in the second-level cache
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "section")
 public class Section {
 
     @Id
     private int sectionNo;  // unique id assigned by database.
     private int sectionId;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="course_id", nullable=false)
     private Course course;
     private String building;
     private String room;
     private String times;
     private String instructorEmail;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="term_id", nullable=false)
     private Term term;
 
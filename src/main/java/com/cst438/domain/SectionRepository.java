@@ -1,13 +1,17 @@
 package com.cst438.domain;
 
+import com.cst438.dto.SectionDTO;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
 
 public interface SectionRepository extends CrudRepository<Section, Integer> {
-    @Query("select s from Section s " +
-            "where s.instructorEmail=:email and s.term.year=:year and s.term.semester=:semester " +
-            "order by s.course.courseId, s.sectionId")
-    List<Section> findByInstructorEmailAndYearAndSemester(String email, int year, String semester);
+    // instructor's sections for a term with the instructor name joined from user_table
+    @Query("select new com.cst438.dto.SectionDTO(s.sectionNo, t.year, t.semester, c.courseId, c.title, s.sectionId, " +
+            "s.building, s.room, s.times, coalesce(u.name, ''), s.instructorEmail) " +
+            "from Section s join s.term t join s.course c left join User u on u.email=s.instructorEmail " +
+            "where s.instructorEmail=:email and t.year=:year and t.semester=:semester " +
+            "order by c.courseId, s.sectionId")
+    List<SectionDTO> findSectionDTOsByInstructorEmailAndYearAndSemester(String email, int year, String semester);
 }
@@ -1,12 +1,18 @@
 package com.cst438.domain;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.sql.Date;
 
+// changed only by registrar messages, kept in the second-level cache
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "term")
 public class Term {
     @Id
     private int termId;
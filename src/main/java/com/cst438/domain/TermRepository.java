@@ -1,9 +1,14 @@
 package com.cst438.domain;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.List;
 
 public interface TermRepository extends CrudRepository<Term, Integer> {
+    // cached, the terms are in the second-level cache and the result in the query cache
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Term findByYearAndSemester( int year, String semester);
 }
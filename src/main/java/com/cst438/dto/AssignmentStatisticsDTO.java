@@ -0,0 +1,22 @@
+package com.cst438.dto;
+
+/*
+ * Data Transfer Object for the score statistics of an assignment.
+ * missing is the number of enrolled students without a score.
+ * mean, median, standardDeviation, low and high are null when nothing is graded.
+ * distribution has 10 buckets of scores 0-9, 10-19, ... 80-89 and 90-100.
+ */
+public record AssignmentStatisticsDTO(
+        int assignmentId,
+        String title,
+        int enrolled,
+        int graded,
+        int missing,
+        Double mean,
+        Double median,
+        Double standardDeviation,
+        Integer low,
+        Integer high,
+        int[] distribution
+) {
+}
@@ -0,0 +1,20 @@
+package com.cst438.dto;
+
+import java.util.List;
+
+/*
+ * Data Transfer Object for the result of a CSV grade import.
+ * Grades are only written when errors is empty, otherwise the counts are
+ * what the import would have done.  errors holds at most the first 100
+ * problems, errorCount is the total.
+ */
+public record GradeImportDTO(
+        int rows,
+        int inserted,
+        int updated,
+        int unchanged,
+        int skipped,
+        int errorCount,
+        List<GradeImportErrorDTO> errors
+) {
+}
@@ -0,0 +1,12 @@
+package com.cst438.dto;
+
+/*
+ * Data Transfer Object for one rejected row of a CSV grade import.
+ * line is the line of the file the row starts on, the header is line 1.
+ */
+public record GradeImportErrorDTO(
+        int line,
+        String studentEmail,
+        String message
+) {
+}
@@ -0,0 +1,13 @@
+package com.cst438.dto;
+/*
+ * One row of the gradebook scan: an enrollment of the section with one of its
+ * grades.  assignmentId is null for an enrollment without any grade.
+ */
+public record GradebookCellDTO(
+        int enrollmentId,
+        String studentName,
+        String studentEmail,
+        Integer assignmentId,
+        Integer score
+) {
+}
@@ -0,0 +1,24 @@
+package com.cst438.dto;
+/*
+ * Data Transfer Object for the gradebook of a section, a students x assignments
+ * matrix in a columnar layout.  Row i is the student at index i of the student
+ * arrays, column j the assignment at index j of the assignment arrays.
+ * scores holds the matrix row by row, the score of row i, column j is
+ * scores[i * assignmentIds.length + j].
+ * Bit k of missing (least significant bit of byte k/8 first, base64 in JSON)
+ * is set when cell k has no score, its entry in scores is 0.
+ */
+public record GradebookDTO(
+        int secNo,
+        String courseId,
+        int secId,
+        int[] assignmentIds,
+        String[] assignmentTitles,
+        String[] dueDates,
+        int[] enrollmentIds,
+        String[] studentNames,
+        String[] studentEmails,
+        int[] scores,
+        byte[] missing
+) {
+}
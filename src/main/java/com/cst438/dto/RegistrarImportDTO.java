@@ -0,0 +1,19 @@
+package com.cst438.dto;
+
+import java.util.List;
+
+/*
+ * Data Transfer Object for the number of rows written by a registrar bulk import.
+ * Rows that were read but not written are not counted, skipped holds at most
+ * the first 100 of them, skippedCount is the total.
+ */
+public record RegistrarImportDTO(
+        int terms,
+        int courses,
+        int sections,
+        int users,
+        int enrollments,
+        int skippedCount,
+        List<String> skipped
+) {
+}
@@ -0,0 +1,74 @@
+package com.cst438.service;
+
+import com.cst438.LoginProperties;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs password checks on a small fixed pool with a bounded queue.
+ * BCrypt is deliberately slow, so a burst of logins waits in the queue
+ * instead of taking every request thread.  When the queue is full, or a
+ * check waits longer than login.password-timeout, the login fails with
+ * a LoginBusyException.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, LoginProperties properties) {
+        this.delegate = delegate;
+        this.timeoutMillis = properties.passwordTimeout().toMillis();
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.passwordThreads(), properties.passwordThreads(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.passwordQueueSize()),
+                r -> {
+                    Thread t = new Thread(r, "password-check-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> delegate.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            throw new LoginBusyException("Login service busy");
+        }
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new LoginBusyException("Login service busy");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Login interrupted");
+        } catch (ExecutionException e) {
+            throw new AuthenticationServiceException("Password check failed", e.getCause());
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
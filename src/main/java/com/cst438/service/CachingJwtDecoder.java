@@ -0,0 +1,90 @@
+package com.cst438.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/*
+ * JwtDecoder that remembers tokens it has already verified.
+ * The SPA sends the same token with every request until it expires, so the
+ * RSA signature check is done once per token instead of once per request.
+ * Entries are keyed by the SHA-256 of the token, the cache is bounded and
+ * each entry expires at the token's exp claim.  Tokens that fail verification
+ * are never cached.
+ * Metrics: cache.gets{cache=jwt,result=hit|miss} for the hit ratio and the
+ * jwt.verification timer for the time spent in the delegate decoder.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> cache;
+    private final Timer verificationTimer;
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        return timeToExpiry(jwt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return timeToExpiry(jwt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt");
+        this.verificationTimer = Timer.builder("jwt.verification")
+                .description("time to verify a JWT that was not in the cache")
+                .register(registry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = sha256(token);
+        Jwt jwt = cache.getIfPresent(key);
+        if (jwt != null) {
+            return jwt;
+        }
+        jwt = verificationTimer.record(() -> delegate.decode(token));
+        if (jwt.getExpiresAt() != null) {
+            cache.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    private static long timeToExpiry(Jwt jwt) {
+        return Math.max(0, Duration.between(Instant.now(), jwt.getExpiresAt()).toNanos());
+    }
+
+    private static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
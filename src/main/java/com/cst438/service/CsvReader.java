@@ -0,0 +1,99 @@
+package com.cst438.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Reads RFC 4180 CSV one record at a time: comma separated, fields may be
+ * quoted, "" inside quotes is a quote, quoted fields may span lines,
+ * records end with CRLF or LF.  A byte order mark at the start of the input,
+ * as Excel writes in front of UTF-8 CSV, is not part of the first field.
+ */
+class CsvReader {
+
+    private final Reader in;
+    private int line = 1;
+    private int recordLine;
+    private int peeked = -2;
+    private boolean started;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // line the last record returned by next() started on
+    int line() {
+        return recordLine;
+    }
+
+    // the fields of the next record, null at the end of the input
+    List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("line " + recordLine + ": unterminated quoted field");
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') {
+                        peeked = n;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
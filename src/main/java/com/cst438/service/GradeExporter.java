@@ -0,0 +1,200 @@
+package com.cst438.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/*
+ * Streams the grades of a section or a whole term as CSV or NDJSON.
+ * One row per enrollment and assignment, with the enrollment's final grade
+ * repeated on each row; enrollments in a section with no assignments get one
+ * row with empty assignment columns.
+ * Rows are read through a forward-only, read-only cursor with a fetch size and
+ * written to the output as they arrive, so the heap used does not depend on the
+ * number of rows.  For MySQL set export.fetch-size=-2147483648 (Integer.MIN_VALUE)
+ * to get row-by-row streaming from Connector/J.
+ */
+@Service
+public class GradeExporter {
+
+    public enum Format { CSV, NDJSON }
+
+    static final String[] COLUMNS = {
+            "year", "semester", "courseId", "secId", "secNo", "instructorEmail",
+            "enrollmentId", "studentId", "studentName", "studentEmail", "grade",
+            "assignmentId", "assignmentTitle", "dueDate", "score"};
+
+    private static final String SELECT =
+            "select t.tyear, t.semester, s.course_id, s.section_id, s.section_no, s.instructor_email, " +
+            "e.enrollment_id, u.id, u.name, u.email, e.grade, " +
+            "a.assignment_id, a.title, a.due_date, g.score " +
+            "from section s join term t on t.term_id = s.term_id " +
+            "join enrollment e on e.section_no = s.section_no " +
+            "join user_table u on u.id = e.user_id " +
+            "left join assignment a on a.section_no = s.section_no " +
+            "left join grade g on g.enrollment_id = e.enrollment_id and g.assignment_id = a.assignment_id ";
+    private static final String ORDER = " order by s.section_no, e.enrollment_id, a.due_date, a.assignment_id";
+
+    static final String SECTION_SQL = SELECT + "where s.section_no = ?" + ORDER;
+    static final String TERM_SQL = SELECT + "where s.term_id = ?" + ORDER;
+
+    private final JdbcTemplate jdbc;
+    private final JsonFactory jsonFactory;
+
+    public GradeExporter(
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            @Value("${export.fetch-size:1000}") int fetchSize
+    ) {
+        // a template of its own, the fetch size only applies to exports
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // returns the number of rows written
+    public long exportSection(int sectionNo, Format format, OutputStream out) throws IOException {
+        return export(SECTION_SQL, sectionNo, format, out);
+    }
+
+    public long exportTerm(int termId, Format format, OutputStream out) throws IOException {
+        return export(TERM_SQL, termId, format, out);
+    }
+
+    private long export(String sql, int key, Format format, OutputStream out) throws IOException {
+        RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+        long[] rows = {0};
+        try {
+            jdbc.query(
+                    con -> {
+                        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        ps.setInt(1, key);
+                        return ps;
+                    },
+                    rs -> {
+                        try {
+                            writer.row(rs);
+                            rows[0]++;
+                        } catch (IOException e) {
+                            // the client went away, stop reading the cursor
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        return rows[0];
+    }
+
+    private interface RowWriter {
+        void row(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static class CsvWriter implements RowWriter {
+        private final Writer w;
+
+        CsvWriter(OutputStream out) throws IOException {
+            w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            w.write(String.join(",", COLUMNS));
+            w.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    w.write(',');
+                }
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    w.write(quote(value.toString()));
+                }
+            }
+            w.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            w.flush();
+        }
+
+        // RFC 4180 quoting, only when the value needs it
+        static String quote(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    return '"' + value.replace("\"", "\"\"") + '"';
+                }
+            }
+            return value;
+        }
+    }
+
+    private class NdjsonWriter implements RowWriter {
+        private final JsonGenerator g;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            g = jsonFactory.createGenerator(out);
+            // the servlet container owns the response stream
+            g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // rows are separated by the newline written after each one
+            g.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(ResultSet rs) throws SQLException, IOException {
+            g.writeStartObject();
+            g.writeNumberField(COLUMNS[0], rs.getInt(1));
+            g.writeStringField(COLUMNS[1], rs.getString(2));
+            g.writeStringField(COLUMNS[2], rs.getString(3));
+            g.writeNumberField(COLUMNS[3], rs.getInt(4));
+            g.writeNumberField(COLUMNS[4], rs.getInt(5));
+            g.writeStringField(COLUMNS[5], rs.getString(6));
+            g.writeNumberField(COLUMNS[6], rs.getInt(7));
+            g.writeNumberField(COLUMNS[7], rs.getInt(8));
+            g.writeStringField(COLUMNS[8], rs.getString(9));
+            g.writeStringField(COLUMNS[9], rs.getString(10));
+            g.writeStringField(COLUMNS[10], rs.getString(11));
+            writeInteger(COLUMNS[11], rs, 12);
+            g.writeStringField(COLUMNS[12], rs.getString(13));
+            Date due = rs.getDate(14);
+            g.writeStringField(COLUMNS[13], due == null ? null : due.toString());
+            writeInteger(COLUMNS[14], rs, 15);
+            g.writeEndObject();
+            g.writeRaw('\n');
+        }
+
+        private void writeInteger(String name, ResultSet rs, int column) throws SQLException, IOException {
+            int value = rs.getInt(column);
+            if (rs.wasNull()) {
+                g.writeNullField(name);
+            } else {
+                g.writeNumberField(name, value);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            g.close();
+        }
+    }
+}
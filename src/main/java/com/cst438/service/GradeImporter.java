@@ -0,0 +1,221 @@
+package com.cst438.service;
+
+import com.cst438.dto.GradeImportDTO;
+import com.cst438.dto.GradeImportErrorDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+ * Imports the scores of one assignment from CSV.  The file needs a header
+ * with a studentEmail and a score column, other columns are ignored, so a
+ * section export can be edited and loaded back.  When the file has an
+ * assignmentId column, rows of other assignments are skipped.
+ * An empty score clears the grade.
+ *
+ * The import runs in one transaction.  The section roster is read into a map
+ * by email and the existing grades of the assignment are added to it, locked
+ * for update so the old scores passed to GradeStatistics stay current.
+ * The file is parsed a record at a time and every row is checked against the
+ * map and the 0-100 score constraint of the grade table.  Accepted rows are
+ * kept as a few ints per enrollment, so memory is bounded by the section size,
+ * not the file size.  If any row was rejected nothing is written; otherwise
+ * the changed grades are written with a JDBC batch of updates and a batch of
+ * inserts.
+ */
+@Service
+public class GradeImporter {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    // must match the increment of grade_seq in schema.sql and the allocationSize of Grade
+    static final int GRADE_SEQ_INCREMENT = 50;
+
+    private static final String ROSTER_SQL =
+            "select u.email, e.enrollment_id from enrollment e join user_table u on u.id = e.user_id where e.section_no = ?";
+    private static final String GRADES_SQL =
+            "select enrollment_id, grade_id, score from grade where assignment_id = ? for update";
+    static final String UPDATE_GRADE = "update grade set score = ? where grade_id = ?";
+    static final String INSERT_GRADE = "insert into grade (grade_id, enrollment_id, assignment_id, score) values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final GradeStatistics gradeStatistics;
+
+    public GradeImporter(JdbcTemplate jdbc, PlatformTransactionManager transactionManager, GradeStatistics gradeStatistics) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gradeStatistics = gradeStatistics;
+    }
+
+    // one enrollment of the section.  score is the score in the file once a row
+    // for the student was accepted
+    private static class Student {
+        final int enrollmentId;
+        Integer gradeId;
+        Integer oldScore;
+        boolean seen;
+        Integer score;
+
+        Student(int enrollmentId) {
+            this.enrollmentId = enrollmentId;
+        }
+    }
+
+    public GradeImportDTO importGrades(int assignmentId, int sectionNo, InputStream in) throws IOException {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return importInTransaction(assignmentId, sectionNo, in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private GradeImportDTO importInTransaction(int assignmentId, int sectionNo, InputStream in) throws IOException {
+        Map<String, Student> roster = new HashMap<>();
+        Map<Integer, Student> byEnrollment = new HashMap<>();
+        jdbc.query(ROSTER_SQL, rs -> {
+            Student student = new Student(rs.getInt(2));
+            roster.put(rs.getString(1).toLowerCase(), student);
+            byEnrollment.put(student.enrollmentId, student);
+        }, sectionNo);
+        jdbc.query(GRADES_SQL, rs -> {
+            Student student = byEnrollment.get(rs.getInt(1));
+            if (student != null) {
+                student.gradeId = rs.getInt(2);
+                int score = rs.getInt(3);
+                student.oldScore = rs.wasNull() ? null : score;
+            }
+        }, assignmentId);
+
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("file is empty");
+        }
+        int emailColumn = -1;
+        int scoreColumn = -1;
+        int assignmentColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (name.equalsIgnoreCase("studentEmail") || name.equalsIgnoreCase("email")) {
+                emailColumn = i;
+            } else if (name.equalsIgnoreCase("score")) {
+                scoreColumn = i;
+            } else if (name.equalsIgnoreCase("assignmentId")) {
+                assignmentColumn = i;
+            }
+        }
+        if (emailColumn < 0 || scoreColumn < 0) {
+            throw new IllegalArgumentException("header must have studentEmail and score columns");
+        }
+
+        int rows = 0;
+        int skipped = 0;
+        int errorCount = 0;
+        List<GradeImportErrorDTO> errors = new ArrayList<>();
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            rows++;
+            String email = field(record, emailColumn);
+            String error = null;
+            if (assignmentColumn >= 0 && !field(record, assignmentColumn).equals(String.valueOf(assignmentId))) {
+                skipped++;
+                continue;
+            }
+            Student student = roster.get(email.toLowerCase());
+            Integer score = null;
+            if (student == null) {
+                error = email.isEmpty() ? "student email is missing" : "student is not enrolled in the section";
+            } else if (student.seen) {
+                error = "student appears more than once";
+            } else {
+                String value = field(record, scoreColumn);
+                if (!value.isEmpty()) {
+                    try {
+                        score = Integer.valueOf(value);
+                        if (score < 0 || score > 100) {
+                            error = "score must be between 0 and 100";
+                        }
+                    } catch (NumberFormatException e) {
+                        error = "score must be a whole number";
+                    }
+                }
+            }
+            if (error != null) {
+                if (errorCount++ < MAX_REPORTED_ERRORS) {
+                    errors.add(new GradeImportErrorDTO(csv.line(), email, error));
+                }
+            } else {
+                student.seen = true;
+                student.score = score;
+            }
+        }
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Student> inserts = new ArrayList<>();
+        List<GradeStatistics.ScoreChange> changes = new ArrayList<>();
+        int unchanged = 0;
+        for (Student s : roster.values()) {
+            if (!s.seen) {
+                continue;
+            }
+            if (s.gradeId == null) {
+                inserts.add(s);
+            } else if (Objects.equals(s.oldScore, s.score)) {
+                unchanged++;
+                continue;
+            } else {
+                updates.add(new Object[]{s.score, s.gradeId});
+            }
+            changes.add(new GradeStatistics.ScoreChange(assignmentId, s.oldScore, s.score));
+        }
+        if (errorCount == 0) {
+            jdbc.batchUpdate(UPDATE_GRADE, updates);
+            jdbc.batchUpdate(INSERT_GRADE, insertArgs(inserts, assignmentId));
+            gradeStatistics.apply(changes);
+        }
+        return new GradeImportDTO(rows, inserts.size(), updates.size(), unchanged, skipped, errorCount, errors);
+    }
+
+    // new grade ids are taken from grade_seq in blocks, the same way the pooled
+    // optimizer of the Grade entity does: each sequence value v owns v-49..v
+    private List<Object[]> insertArgs(List<Student> inserts, int assignmentId) {
+        List<Object[]> args = new ArrayList<>(inserts.size());
+        int next = 0;
+        int last = -1;
+        for (Student s : inserts) {
+            if (next > last) {
+                last = jdbc.queryForObject("select next value for grade_seq", Integer.class);
+                next = last - GRADE_SEQ_INCREMENT + 1;
+            }
+            args.add(new Object[]{next++, s.enrollmentId, assignmentId, s.score});
+        }
+        return args;
+    }
+
+    private static String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column).trim() : "";
+    }
+}
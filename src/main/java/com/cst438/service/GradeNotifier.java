@@ -0,0 +1,161 @@
+package com.cst438.service;
+
+import com.cst438.domain.*;
+import com.cst438.dto.AssignmentStudentDTO;
+import com.cst438.dto.EnrollmentDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+ * Pushes changed scores and final grades to the students as server-sent events,
+ * so a student client does not have to poll GET /assignments.  Subscriptions are
+ * held in memory, in this application instance only, by the id of the student.
+ * The id is looked up from the email once, when the student subscribes.
+ *
+ * The controllers publish GradesChanged and FinalGradesChanged in the transaction
+ * that makes the change, with the student id of each changed row, which they have
+ * without loading the student.  After the commit the rows of subscribed students
+ * are read with one query and each is sent to its student only, so a fan-out
+ * costs O(affected students), and nothing is read when none of them is subscribed.
+ * The fan-out runs on the application task executor, not on the request thread
+ * that committed the change.
+ * A subscription ends after student.events.timeout, EventSource clients
+ * reconnect on their own.
+ */
+@Service
+public class GradeNotifier {
+
+    // a changed grade or enrollment and the student it belongs to
+    public record Change(int id, int studentId) { }
+
+    public record GradesChanged(List<Change> grades) { }
+
+    public record FinalGradesChanged(List<Change> enrollments) { }
+
+    private final UserRepository userRepository;
+    private final GradeRepository gradeRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final long timeout;
+    private final Map<Integer, List<SseEmitter>> subscriptions = new ConcurrentHashMap<>();
+
+    public GradeNotifier(
+            UserRepository userRepository,
+            GradeRepository gradeRepository,
+            EnrollmentRepository enrollmentRepository,
+            @Value("${student.events.timeout:30m}") Duration timeout
+    ) {
+        this.userRepository = userRepository;
+        this.gradeRepository = gradeRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.timeout = timeout.toMillis();
+    }
+
+    // empty when there is no user with the email
+    public Optional<SseEmitter> subscribe(String email) {
+        User student = userRepository.findByEmail(email);
+        if (student == null) {
+            return Optional.empty();
+        }
+        int studentId = student.getId();
+        SseEmitter emitter = new SseEmitter(timeout);
+        // added inside compute, so a concurrent unsubscribe cannot drop the list first
+        subscriptions.compute(studentId, (k, emitters) -> {
+            List<SseEmitter> list = emitters == null ? new CopyOnWriteArrayList<>() : emitters;
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(studentId, emitter));
+        emitter.onTimeout(() -> unsubscribe(studentId, emitter));
+        emitter.onError(e -> unsubscribe(studentId, emitter));
+        // sends the response headers now, rather than with the first change
+        send(studentId, emitter, SseEmitter.event().comment("subscribed"));
+        return Optional.of(emitter);
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void gradesChanged(GradesChanged event) {
+        List<Integer> gradeIds = subscribed(event.grades());
+        if (gradeIds.isEmpty()) {
+            return;
+        }
+        for (Grade g : gradeRepository.findWithStudentByGradeIdIn(gradeIds)) {
+            int studentId = g.getEnrollment().getStudent().getId();
+            List<SseEmitter> emitters = subscriptions.getOrDefault(studentId, List.of());
+            Assignment a = g.getAssignment();
+            Section s = a.getSection();
+            AssignmentStudentDTO dto = new AssignmentStudentDTO(a.getAssignmentId(), a.getTitle(), a.getDueDate(),
+                    s.getCourse().getCourseId(), s.getSectionId(), g.getScore());
+            for (SseEmitter emitter : emitters) {
+                send(studentId, emitter, SseEmitter.event().name("assignment").data(dto));
+            }
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void finalGradesChanged(FinalGradesChanged event) {
+        List<Integer> enrollmentIds = subscribed(event.enrollments());
+        if (enrollmentIds.isEmpty()) {
+            return;
+        }
+        for (Enrollment e : enrollmentRepository.findWithStudentByEnrollmentIdIn(enrollmentIds)) {
+            User student = e.getStudent();
+            List<SseEmitter> emitters = subscriptions.getOrDefault(student.getId(), List.of());
+            Section s = e.getSection();
+            Course c = s.getCourse();
+            EnrollmentDTO dto = new EnrollmentDTO(e.getEnrollmentId(), e.getGrade(), student.getId(),
+                    student.getName(), student.getEmail(), c.getCourseId(), c.getTitle(), s.getSectionId(),
+                    s.getSectionNo(), s.getBuilding(), s.getRoom(), s.getTimes(), c.getCredits(),
+                    s.getTerm().getYear(), s.getTerm().getSemester());
+            for (SseEmitter emitter : emitters) {
+                send(student.getId(), emitter, SseEmitter.event().name("enrollment").data(dto));
+            }
+        }
+    }
+
+    // ends the open streams when the application starts to shut down, before the
+    // web server's graceful shutdown waits for them.  the clients reconnect
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        subscriptions.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    // ids of the changed rows of subscribed students
+    private List<Integer> subscribed(List<Change> changes) {
+        if (subscriptions.isEmpty()) {
+            return List.of();
+        }
+        return changes.stream().filter(c -> subscriptions.containsKey(c.studentId())).map(Change::id).toList();
+    }
+
+    // a failed send means the client is gone, the container completes the emitter
+    private void send(int studentId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(studentId, emitter);
+        }
+    }
+
+    private void unsubscribe(int studentId, SseEmitter emitter) {
+        subscriptions.computeIfPresent(studentId, (k, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package com.cst438.service;
+
+import com.cst438.dto.AssignmentStatisticsDTO;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/*
+ * Score statistics of each assignment, kept in the grade_histogram table as the
+ * number of grades with each score 0-100.  Count, sum, sum of squares, median
+ * and distribution all come from those at most 101 rows, so reading the
+ * statistics does not depend on the number of students.
+ *
+ * Every write that changes a score passes the old and new score to apply() in
+ * the same transaction, and the histogram rows are changed by +1/-1 deltas.
+ * Callers lock the grade rows they change first, so the old score is the
+ * committed one, and deltas are applied in (assignment, score) order so two
+ * transactions always lock histogram rows in the same order.
+ */
+@Service
+public class GradeStatistics {
+
+    static final String ADD_TO_BUCKET =
+            "update grade_histogram set graded = graded + ? where assignment_id = ? and score = ?";
+    static final String INSERT_BUCKET =
+            "insert into grade_histogram (assignment_id, score, graded) values (?, ?, ?)";
+
+    public record ScoreChange(int assignmentId, Integer oldScore, Integer newScore) { }
+
+    private final JdbcTemplate jdbc;
+
+    public GradeStatistics(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(List<ScoreChange> changes) {
+        // net change per histogram row, ordered by assignment and score
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (ScoreChange c : changes) {
+            if (Objects.equals(c.oldScore(), c.newScore())) {
+                continue;
+            }
+            if (c.oldScore() != null) {
+                deltas.merge(bucket(c.assignmentId(), c.oldScore()), -1, Integer::sum);
+            }
+            if (c.newScore() != null) {
+                deltas.merge(bucket(c.assignmentId(), c.newScore()), 1, Integer::sum);
+            }
+        }
+        List<Object[]> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((bucket, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, (int) (bucket / 101), (int) (bucket % 101)});
+            }
+        });
+        if (updates.isEmpty()) {
+            return;
+        }
+        int[] counts = jdbc.batchUpdate(ADD_TO_BUCKET, updates);
+        // rows are created the first time a score is given
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Object[] u = updates.get(i);
+                try {
+                    jdbc.update(INSERT_BUCKET, u[1], u[2], u[0]);
+                } catch (DuplicateKeyException e) {
+                    // created by a concurrent transaction since the update
+                    jdbc.update(ADD_TO_BUCKET, u);
+                }
+            }
+        }
+    }
+
+    // removes the scores of enrollments that are about to be deleted,
+    // deleting an enrollment deletes its grades
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retractEnrollments(List<Integer> enrollmentIds) {
+        retract("select assignment_id, score from grade where enrollment_id = ? for update", enrollmentIds);
+    }
+
+    // same for users, deleting a user deletes the enrollments
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retractUsers(List<Integer> userIds) {
+        retract("select assignment_id, score from grade " +
+                "where enrollment_id in (select enrollment_id from enrollment where user_id = ?) for update", userIds);
+    }
+
+    private void retract(String sql, List<Integer> ids) {
+        List<ScoreChange> changes = new ArrayList<>();
+        for (Integer id : ids) {
+            jdbc.query(sql, rs -> {
+                int score = rs.getInt(2);
+                if (!rs.wasNull()) {
+                    changes.add(new ScoreChange(rs.getInt(1), score, null));
+                }
+            }, id);
+        }
+        apply(changes);
+    }
+
+    public AssignmentStatisticsDTO statistics(int assignmentId, String title, int enrolled) {
+        int[] histogram = new int[101];
+        jdbc.query("select score, graded from grade_histogram where assignment_id = ? and graded > 0",
+                rs -> {
+                    histogram[rs.getInt(1)] = rs.getInt(2);
+                }, assignmentId);
+        return summarize(assignmentId, title, enrolled, histogram);
+    }
+
+    static AssignmentStatisticsDTO summarize(int assignmentId, String title, int enrolled, int[] histogram) {
+        int graded = 0;
+        long sum = 0;
+        long sumOfSquares = 0;
+        int low = -1;
+        int high = -1;
+        int[] distribution = new int[10];
+        for (int score = 0; score <= 100; score++) {
+            int n = histogram[score];
+            if (n == 0) {
+                continue;
+            }
+            if (low < 0) {
+                low = score;
+            }
+            high = score;
+            graded += n;
+            sum += (long) n * score;
+            sumOfSquares += (long) n * score * score;
+            distribution[Math.min(score / 10, 9)] += n;
+        }
+        int missing = Math.max(0, enrolled - graded);
+        if (graded == 0) {
+            return new AssignmentStatisticsDTO(assignmentId, title, enrolled, 0, missing,
+                    null, null, null, null, null, distribution);
+        }
+        double mean = (double) sum / graded;
+        double variance = Math.max(0, (double) sumOfSquares / graded - mean * mean);
+        double median = (nth(histogram, (graded - 1) / 2) + nth(histogram, graded / 2)) / 2.0;
+        return new AssignmentStatisticsDTO(assignmentId, title, enrolled, graded, missing,
+                mean, median, Math.sqrt(variance), low, high, distribution);
+    }
+
+    // the score at position k, counting from 0, of the sorted scores
+    private static int nth(int[] histogram, int k) {
+        int seen = 0;
+        for (int score = 0; score <= 100; score++) {
+            seen += histogram[score];
+            if (seen > k) {
+                return score;
+            }
+        }
+        throw new IllegalArgumentException("k is larger than the number of scores");
+    }
+
+    private static long bucket(int assignmentId, int score) {
+        return assignmentId * 101L + score;
+    }
+}
@@ -0,0 +1,50 @@
+package com.cst438.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/*
+ * Checks at startup that the database has the index set this version of the
+ * application expects.  The index set is created by schema.sql on H2 and by
+ * the scripts in db/mysql on MySQL, each records its version in index_set.
+ * A database without the expected version still works, its hot queries may
+ * scan whole tables, so the check logs a warning rather than failing.
+ */
+@Service
+public class IndexSetCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexSetCheck.class);
+
+    // version of the newest db/mysql/V<n>__index_set.sql
+    public static final int VERSION = 1;
+
+    private final JdbcTemplate jdbc;
+
+    public IndexSetCheck(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    // the applied index set version, 0 when none is recorded
+    public int appliedVersion() {
+        try {
+            Integer version = jdbc.queryForObject("select max(version) from index_set", Integer.class);
+            return version == null ? 0 : version;
+        } catch (DataAccessException e) {
+            return 0;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        int applied = appliedVersion();
+        if (applied < VERSION) {
+            log.warn("database has index set version {}, expected {}: apply the db/mysql index set scripts V{} to V{}",
+                    applied, VERSION, applied + 1, VERSION);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.cst438.service;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// the password check pool is saturated, the login can be retried later.
+// SecurityConfiguration answers it with 503 and Retry-After instead of 401
+public class LoginBusyException extends AuthenticationServiceException {
+
+    public LoginBusyException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,41 @@
+package com.cst438.service;
+
+import com.cst438.domain.Course;
+import com.cst438.domain.Section;
+import com.cst438.domain.Term;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+/*
+ * Evicts Term, Course and Section from the Hibernate second-level cache.
+ * Writes made through the repositories keep the cache current by themselves,
+ * writes made with JDBC (registrar batches and imports, the synthetic seeder)
+ * are not seen by Hibernate and must evict the rows they changed after commit.
+ */
+@Service
+public class ReferenceDataCache {
+
+    private final Cache cache;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    public void evictCourse(String courseId) {
+        cache.evict(Course.class, courseId);
+    }
+
+    public void evictSection(int sectionNo) {
+        cache.evict(Section.class, sectionNo);
+    }
+
+    // every cached term, course and section, and the cached query results
+    public void evictAll() {
+        cache.evict(Term.class);
+        cache.evict(Course.class);
+        cache.evict(Section.class);
+        cache.evictQueryRegions();
+    }
+}
@@ -0,0 +1,309 @@
+package com.cst438.service;
+
+import com.cst438.dto.CourseDTO;
+import com.cst438.dto.EnrollmentDTO;
+import com.cst438.dto.SectionDTO;
+import com.cst438.dto.UserPasswordDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Applies a batch of registrar messages with JDBC batch upserts, written as an
+ * update and an insert of the rows the update did not find, in plain SQL.
+ *
+ * The batch is split into runs of consecutive messages for the same kind of
+ * entity (course, section, user, enrollment).  Runs are applied one after the
+ * other, so a section is always written before the enrollments that follow it.
+ * Inside a run the messages are hash partitioned by entity key into lanes that
+ * are applied in parallel, each lane in one transaction.  Messages for the same
+ * entity always land in the same lane and keep their order.  A message that
+ * cannot be parsed is handed to RegistrarServiceProxy.receiveFromRegistrar after
+ * the messages before it are applied, and before the ones after it.
+ *
+ * If a lane fails, its messages are applied again one at a time with
+ * RegistrarServiceProxy.receiveFromRegistrar so a bad message does not lose
+ * the rest of the lane.
+ */
+@Service
+public class RegistrarBatchApplier {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrarBatchApplier.class);
+
+    // an upsert is an update, then an insert of the rows the update did not find.
+    // a row the driver reports no count for is resolved with knownCounts
+    static final String UPDATE_COURSE =
+            "update course set title = ?, credits = ? where course_id = ?";
+    static final String INSERT_COURSE =
+            "insert into course (course_id, title, credits) values (?, ?, ?)";
+    static final String DELETE_COURSE =
+            "delete from course where course_id = ?";
+    static final String UPDATE_SECTION =
+            "update section set course_id = ?, section_id = ?, " +
+            "term_id = (select t.term_id from term t where t.tyear = ? and t.semester = ?), " +
+            "building = ?, room = ?, times = ?, instructor_email = ? " +
+            "where section_no = ? and exists (select 1 from term t where t.tyear = ? and t.semester = ?)";
+    static final String INSERT_SECTION =
+            "insert into section (section_no, course_id, section_id, term_id, building, room, times, instructor_email) " +
+            "select ?, ?, ?, t.term_id, ?, ?, ?, ? from term t where t.tyear = ? and t.semester = ? " +
+            "and not exists (select 1 from section where section_no = ?)";
+    static final String DELETE_SECTION =
+            "delete from section where section_no = ?";
+    static final String UPDATE_USER =
+            "update user_table set name = ?, email = ?, password = ?, type = ? where id = ?";
+    static final String INSERT_USER =
+            "insert into user_table (id, name, email, password, type) values (?, ?, ?, ?, ?)";
+    static final String DELETE_USER =
+            "delete from user_table where id = ?";
+    static final String UPDATE_ENROLLMENT =
+            "update enrollment set grade = ?, section_no = ?, user_id = ? where enrollment_id = ?";
+    static final String INSERT_ENROLLMENT =
+            "insert into enrollment (enrollment_id, grade, section_no, user_id) values (?, ?, ?, ?)";
+    static final String DELETE_ENROLLMENT =
+            "delete from enrollment where enrollment_id = ?";
+
+    // one registrar message translated to SQL statements, an update or delete and,
+    // for an upsert, the insert to run when the update finds no row
+    record Change(String message, String entity, Object key, String sql, Object[] args,
+                  String insertSql, Object[] insertArgs) {
+
+        Change(String message, String entity, Object key, String sql, Object[] args) {
+            this(message, entity, key, sql, args, null, null);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final GradeStatistics gradeStatistics;
+    private final ReferenceDataCache referenceDataCache;
+    private final int laneCount;
+    private final ExecutorService lanes;
+
+    public RegistrarBatchApplier(
+            JdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager,
+            UserDetailsCache userDetailsCache,
+            GradeStatistics gradeStatistics,
+            ReferenceDataCache referenceDataCache,
+            @Value("${registrar.listener.lanes:4}") int laneCount
+    ) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userDetailsCache = userDetailsCache;
+        this.gradeStatistics = gradeStatistics;
+        this.referenceDataCache = referenceDataCache;
+        this.laneCount = laneCount;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.lanes = Executors.newFixedThreadPool(laneCount, r -> {
+            Thread t = new Thread(r, "registrar-lane-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lanes.shutdown();
+    }
+
+    public void apply(List<String> messages, RegistrarServiceProxy registrar) {
+        List<Change> changes = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            Change change = toChange(message, registrar);
+            if (change == null) {
+                // unknown command or bad payload, let the single message path report it.
+                // the changes before it are applied first so it keeps its place in the batch
+                applyChanges(changes, registrar);
+                changes.clear();
+                registrar.receiveFromRegistrar(message);
+            } else {
+                changes.add(change);
+            }
+        }
+        applyChanges(changes, registrar);
+    }
+
+    private void applyChanges(List<Change> changes, RegistrarServiceProxy registrar) {
+        int start = 0;
+        while (start < changes.size()) {
+            String entity = changes.get(start).entity();
+            int end = start + 1;
+            while (end < changes.size() && changes.get(end).entity().equals(entity)) {
+                end++;
+            }
+            applyRun(changes.subList(start, end), registrar);
+            if (entity.equals("user")) {
+                // a deleteUser message only has the id, so drop all cached logins
+                userDetailsCache.removeAll();
+            } else if (entity.equals("course") || entity.equals("section")) {
+                // the rows were written with JDBC, drop them from the second-level cache
+                for (Change c : changes.subList(start, end)) {
+                    if (entity.equals("course")) {
+                        referenceDataCache.evictCourse((String) c.key());
+                    } else {
+                        referenceDataCache.evictSection((Integer) c.key());
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void applyRun(List<Change> run, RegistrarServiceProxy registrar) {
+        List<List<Change>> partitions = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (Change c : run) {
+            partitions.get(Math.floorMod(c.key().hashCode(), laneCount)).add(c);
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Change> partition : partitions) {
+            if (!partition.isEmpty()) {
+                futures.add(lanes.submit(() -> applyLane(partition, registrar)));
+            }
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (Exception e) {
+                log.warn("registrar batch lane failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void applyLane(List<Change> lane, RegistrarServiceProxy registrar) {
+        boolean[] termMissing = new boolean[lane.size()];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // consecutive statements with the same SQL are sent as one JDBC batch.
+                // a batch holds each entity once, so an upsert's update and insert
+                // cannot both miss and both insert the same row
+                int start = 0;
+                while (start < lane.size()) {
+                    String sql = lane.get(start).sql();
+                    List<Object[]> args = new ArrayList<>();
+                    Set<Object> keys = new HashSet<>();
+                    int end = start;
+                    while (end < lane.size() && lane.get(end).sql().equals(sql) && keys.add(lane.get(end).key())) {
+                        args.add(lane.get(end).args());
+                        end++;
+                    }
+                    // grades are deleted with their enrollment, take their scores
+                    // out of the statistics first
+                    if (sql.equals(DELETE_ENROLLMENT)) {
+                        gradeStatistics.retractEnrollments(args.stream().map(a -> (Integer) a[0]).toList());
+                    } else if (sql.equals(DELETE_USER)) {
+                        gradeStatistics.retractUsers(args.stream().map(a -> (Integer) a[0]).toList());
+                    }
+                    int[] counts = jdbc.batchUpdate(sql, args);
+                    String insertSql = lane.get(start).insertSql();
+                    if (insertSql != null) {
+                        knownCounts(jdbc, sql, args, counts);
+                        List<Integer> missing = new ArrayList<>();
+                        for (int i = 0; i < counts.length; i++) {
+                            if (counts[i] == 0) {
+                                missing.add(start + i);
+                            }
+                        }
+                        int[] inserted = jdbc.batchUpdate(insertSql, missing.stream().map(i -> lane.get(i).insertArgs()).toList());
+                        // the update finds a row the insert wrote
+                        knownCounts(jdbc, sql, missing.stream().map(i -> lane.get(i).args()).toList(), inserted);
+                        // a section is neither updated nor inserted when its term does not exist
+                        for (int i = 0; i < inserted.length; i++) {
+                            if (inserted[i] == 0) {
+                                log.warn("term not found for {}", lane.get(missing.get(i)).message());
+                                termMissing[missing.get(i)] = true;
+                            }
+                        }
+                    }
+                    start = end;
+                }
+            });
+        } catch (Exception e) {
+            log.warn("batch failed, applying messages one at a time: {}", e.getMessage());
+            for (Change c : lane) {
+                registrar.receiveFromRegistrar(c.message());
+            }
+            return;
+        }
+        for (int i = 0; i < lane.size(); i++) {
+            registrar.countMessage(lane.get(i).message().split(" ", 2)[0], termMissing[i] ? "failure" : "success");
+        }
+    }
+
+    // a driver may report Statement.SUCCESS_NO_INFO instead of the count of a batched
+    // row, MySQL does with rewriteBatchedStatements=true.  the update of such a row is
+    // run again on its own, it sets the same values and reports whether the row exists
+    static void knownCounts(JdbcTemplate jdbc, String updateSql, List<Object[]> updateArgs, int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                counts[i] = jdbc.update(updateSql, updateArgs.get(i));
+            }
+        }
+    }
+
+    private Change toChange(String message, RegistrarServiceProxy registrar) {
+        try {
+            String[] parts = message.split(" ", 2);
+            switch (parts[0]) {
+                case "addCourse":
+                case "updateCourse":
+                    CourseDTO c = registrar.fromJsonString(parts[1], CourseDTO.class);
+                    return new Change(message, "course", c.courseId(),
+                            UPDATE_COURSE, new Object[]{c.title(), c.credits(), c.courseId()},
+                            INSERT_COURSE, new Object[]{c.courseId(), c.title(), c.credits()});
+                case "deleteCourse":
+                    return new Change(message, "course", parts[1], DELETE_COURSE, new Object[]{parts[1]});
+                case "addSection":
+                case "updateSection":
+                    SectionDTO s = registrar.fromJsonString(parts[1], SectionDTO.class);
+                    return new Change(message, "section", s.secNo(),
+                            UPDATE_SECTION, new Object[]{s.courseId(), s.secId(), s.year(), s.semester(), s.building(),
+                                    s.room(), s.times(), s.instructorEmail(), s.secNo(), s.year(), s.semester()},
+                            INSERT_SECTION, new Object[]{s.secNo(), s.courseId(), s.secId(), s.building(), s.room(),
+                                    s.times(), s.instructorEmail(), s.year(), s.semester(), s.secNo()});
+                case "deleteSection":
+                    int secNo = Integer.parseInt(parts[1]);
+                    return new Change(message, "section", secNo, DELETE_SECTION, new Object[]{secNo});
+                case "addUser":
+                case "updateUser":
+                    UserPasswordDTO u = registrar.fromJsonString(parts[1], UserPasswordDTO.class);
+                    return new Change(message, "user", u.id(),
+                            UPDATE_USER, new Object[]{u.name(), u.email(), u.password(), u.type(), u.id()},
+                            INSERT_USER, new Object[]{u.id(), u.name(), u.email(), u.password(), u.type()});
+                case "deleteUser":
+                    int userId = Integer.parseInt(parts[1]);
+                    return new Change(message, "user", userId, DELETE_USER, new Object[]{userId});
+                case "addEnrollment":
+                    EnrollmentDTO e = registrar.fromJsonString(parts[1], EnrollmentDTO.class);
+                    return new Change(message, "enrollment", e.enrollmentId(),
+                            UPDATE_ENROLLMENT, new Object[]{e.grade(), e.sectionNo(), e.studentId(), e.enrollmentId()},
+                            INSERT_ENROLLMENT, new Object[]{e.enrollmentId(), e.grade(), e.sectionNo(), e.studentId()});
+                case "deleteEnrollment":
+                    int enrollmentId = Integer.parseInt(parts[1]);
+                    return new Change(message, "enrollment", enrollmentId, DELETE_ENROLLMENT, new Object[]{enrollmentId});
+                default:
+                    return null;
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.cst438.service;
+
+import com.cst438.dto.RegistrarImportDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.Date;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Bulk import of a registrar snapshot in NDJSON format, one entity per line:
+ *   {"entity":"term","termId":10,"year":2025,"semester":"Fall","addDate":"2025-04-01", ...}
+ *   {"entity":"course", ...CourseDTO fields}
+ *   {"entity":"section", ...SectionDTO fields}
+ *   {"entity":"user", ...UserPasswordDTO fields}
+ *   {"entity":"enrollment", ...EnrollmentDTO fields}
+ * The lines may come in any order.  The input is read token by token with a
+ * streaming JsonParser, checked, and spooled to one temporary file per entity.
+ * The files are then written in foreign key order, parents first, with JDBC
+ * batch upserts committed every chunk-size rows, so heap use does not depend on
+ * the size of the snapshot.  Rows are upserted, so an import can be rerun.
+ *
+ * A row the database rejects stops the import with a DataIntegrityViolationException
+ * that names its line, the chunks before it stay committed.  A section of a term
+ * that does not exist is skipped and reported.
+ */
+@Service
+public class RegistrarImporter {
+
+    static final String UPDATE_TERM =
+            "update term set tyear = ?, semester = ?, add_date = ?, add_deadline = ?, drop_deadline = ?, " +
+            "start_date = ?, end_date = ? where term_id = ?";
+    static final String INSERT_TERM =
+            "insert into term (term_id, tyear, semester, add_date, add_deadline, drop_deadline, start_date, end_date) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // tables in foreign key order, parents are always written first
+    private static final List<String> TYPES = List.of("term", "course", "section", "user", "enrollment");
+    private static final Map<String, List<String>> SQL = Map.of(
+            "term", List.of(UPDATE_TERM, INSERT_TERM),
+            "course", List.of(RegistrarBatchApplier.UPDATE_COURSE, RegistrarBatchApplier.INSERT_COURSE),
+            "section", List.of(RegistrarBatchApplier.UPDATE_SECTION, RegistrarBatchApplier.INSERT_SECTION),
+            "user", List.of(RegistrarBatchApplier.UPDATE_USER, RegistrarBatchApplier.INSERT_USER),
+            "enrollment", List.of(RegistrarBatchApplier.UPDATE_ENROLLMENT, RegistrarBatchApplier.INSERT_ENROLLMENT));
+    private static final int MAX_SKIPPED = 100;
+
+    // one line of the snapshot as arguments of the update and of the insert
+    private record Row(int line, Object key, Object[] update, Object[] insert) {
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final ReferenceDataCache referenceDataCache;
+    private final JsonFactory jsonFactory;
+    private final int chunkSize;
+
+    public RegistrarImporter(
+            JdbcTemplate jdbc,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            UserDetailsCache userDetailsCache,
+            ReferenceDataCache referenceDataCache,
+            @Value("${registrar.import.chunk-size:5000}") int chunkSize
+    ) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userDetailsCache = userDetailsCache;
+        this.referenceDataCache = referenceDataCache;
+        this.jsonFactory = objectMapper.getFactory();
+        this.chunkSize = chunkSize;
+    }
+
+    public RegistrarImportDTO importSnapshot(InputStream in) throws IOException {
+        Map<String, Path> spool = new HashMap<>();
+        try {
+            for (String type : TYPES) {
+                spool.put(type, Files.createTempFile("registrar-import-" + type, ".ndjson"));
+            }
+            split(in, spool);
+            Map<String, Integer> counts = new HashMap<>();
+            List<String> skipped = new ArrayList<>();
+            int[] skippedCount = new int[1];
+            for (String type : TYPES) {
+                counts.put(type, write(type, spool.get(type), skipped, skippedCount));
+            }
+            if (counts.get("user") > 0) {
+                userDetailsCache.removeAll();
+            }
+            if (counts.get("term") > 0 || counts.get("course") > 0 || counts.get("section") > 0) {
+                referenceDataCache.evictAll();
+            }
+            return new RegistrarImportDTO(
+                    counts.get("term"),
+                    counts.get("course"),
+                    counts.get("section"),
+                    counts.get("user"),
+                    counts.get("enrollment"),
+                    skippedCount[0],
+                    skipped);
+        } finally {
+            for (Path p : spool.values()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    // checks each line and copies it, with its line number, to the file of its entity
+    private void split(InputStream in, Map<String, Path> spool) throws IOException {
+        Map<String, JsonGenerator> out = new HashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            for (String type : TYPES) {
+                out.put(type, jsonFactory.createGenerator(Files.newOutputStream(spool.get(type))));
+            }
+            Map<String, String> fields = new HashMap<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                int line = parser.currentTokenLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("line " + line + ": expected a JSON object");
+                }
+                readFields(parser, fields);
+                String type = fields.get("entity");
+                if (type == null || !SQL.containsKey(type)) {
+                    throw new IllegalArgumentException("line " + line + ": unknown entity " + type);
+                }
+                toRow(type, fields, line);
+                JsonGenerator g = out.get(type);
+                g.writeStartObject();
+                g.writeNumberField("line", line);
+                for (Map.Entry<String, String> f : fields.entrySet()) {
+                    g.writeStringField(f.getKey(), f.getValue());
+                }
+                g.writeEndObject();
+                g.writeRaw('\n');
+            }
+        } finally {
+            for (JsonGenerator g : out.values()) {
+                g.close();
+            }
+        }
+    }
+
+    // upserts the rows of one entity, returns the number written
+    private int write(String type, Path file, List<String> skipped, int[] skippedCount) throws IOException {
+        int written = 0;
+        List<Row> chunk = new ArrayList<>();
+        Set<Object> keys = new HashSet<>();
+        Map<String, String> fields = new HashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(file.toFile())) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                readFields(parser, fields);
+                Row row = toRow(type, fields, Integer.parseInt(fields.get("line")));
+                // a chunk holds each key once, so an update and an insert cannot both
+                // miss the row and both insert it
+                if (chunk.size() >= chunkSize || !keys.add(row.key())) {
+                    written += flush(type, chunk, skipped, skippedCount);
+                    chunk.clear();
+                    keys.clear();
+                    keys.add(row.key());
+                }
+                chunk.add(row);
+            }
+        }
+        return written + flush(type, chunk, skipped, skippedCount);
+    }
+
+    private int flush(String type, List<Row> chunk, List<String> skipped, int[] skippedCount) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        return transactionTemplate.execute(status -> {
+            String updateSql = SQL.get(type).get(0);
+            int[] counts = batchUpdate(type, updateSql, chunk.stream().map(Row::update).toList(), chunk);
+            RegistrarBatchApplier.knownCounts(jdbc, updateSql, chunk.stream().map(Row::update).toList(), counts);
+            List<Row> missing = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(chunk.get(i));
+                }
+            }
+            int[] inserted = batchUpdate(type, SQL.get(type).get(1), missing.stream().map(Row::insert).toList(), missing);
+            RegistrarBatchApplier.knownCounts(jdbc, updateSql, missing.stream().map(Row::update).toList(), inserted);
+            int written = chunk.size();
+            // a section is neither updated nor inserted when its term does not exist
+            for (int i = 0; i < inserted.length; i++) {
+                if (inserted[i] == 0) {
+                    written--;
+                    if (skippedCount[0]++ < MAX_SKIPPED) {
+                        Object[] args = missing.get(i).insert();
+                        skipped.add("line " + missing.get(i).line() + ": " + type + " " + args[0] +
+                                ", no term " + args[8] + " " + args[7]);
+                    }
+                }
+            }
+            return written;
+        });
+    }
+
+    // a rejected row is reported with its line, found from the update counts of the batch
+    private int[] batchUpdate(String type, String sql, List<Object[]> args, List<Row> rows) {
+        try {
+            return jdbc.batchUpdate(sql, args);
+        } catch (DataIntegrityViolationException e) {
+            String where = "lines " + rows.get(0).line() + "-" + rows.get(rows.size() - 1).line();
+            if (e.getCause() instanceof BatchUpdateException b) {
+                int[] counts = b.getUpdateCounts();
+                int failed = counts.length;
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == Statement.EXECUTE_FAILED) {
+                        failed = i;
+                        break;
+                    }
+                }
+                if (failed < rows.size()) {
+                    where = "line " + rows.get(failed).line();
+                }
+            }
+            throw new DataIntegrityViolationException(where + ": invalid " + type + ", " +
+                    e.getMostSpecificCause().getMessage(), e);
+        }
+    }
+
+    private static void readFields(JsonParser parser, Map<String, String> fields) throws IOException {
+        fields.clear();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken().isStructStart()) {
+                parser.skipChildren();
+            } else {
+                fields.put(name, parser.getValueAsString());
+            }
+        }
+    }
+
+    private static Row toRow(String type, Map<String, String> f, int line) {
+        try {
+            return switch (type) {
+                case "term" -> {
+                    int termId = Integer.parseInt(f.get("termId"));
+                    Object[] values = {Integer.parseInt(f.get("year")), f.get("semester"),
+                            Date.valueOf(f.get("addDate")), Date.valueOf(f.get("addDeadline")),
+                            Date.valueOf(f.get("dropDeadline")), Date.valueOf(f.get("startDate")),
+                            Date.valueOf(f.get("endDate"))};
+                    yield keyed(line, termId, values);
+                }
+                case "course" -> keyed(line, f.get("courseId"), new Object[]{
+                        f.get("title"), Integer.parseInt(f.get("credits"))});
+                case "section" -> {
+                    int secNo = Integer.parseInt(f.get("secNo"));
+                    String courseId = f.get("courseId");
+                    int secId = Integer.parseInt(f.get("secId"));
+                    int year = Integer.parseInt(f.get("year"));
+                    String semester = f.get("semester");
+                    yield new Row(line, secNo,
+                            new Object[]{courseId, secId, year, semester, f.get("building"), f.get("room"),
+                                    f.get("times"), f.get("instructorEmail"), secNo, year, semester},
+                            new Object[]{secNo, courseId, secId, f.get("building"), f.get("room"), f.get("times"),
+                                    f.get("instructorEmail"), year, semester, secNo});
+                }
+                case "user" -> keyed(line, Integer.parseInt(f.get("id")), new Object[]{
+                        f.get("name"), f.get("email"), f.get("password"), f.get("type")});
+                default -> keyed(line, Integer.parseInt(f.get("enrollmentId")), new Object[]{
+                        f.get("grade"), Integer.parseInt(f.get("sectionNo")), Integer.parseInt(f.get("studentId"))});
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("line " + line + ": invalid " + type + " " + e.getMessage());
+        }
+    }
+
+    // the update sets the values where the key matches, the insert writes the key then the values
+    private static Row keyed(int line, Object key, Object[] values) {
+        Object[] update = Arrays.copyOf(values, values.length + 1);
+        update[values.length] = key;
+        Object[] insert = new Object[values.length + 1];
+        insert[0] = key;
+        System.arraycopy(values, 0, insert, 1, values.length);
+        return new Row(line, key, update, insert);
+    }
+}
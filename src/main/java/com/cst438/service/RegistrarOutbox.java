@@ -0,0 +1,82 @@
+package com.cst438.service;
+
+import com.cst438.domain.OutboxMessage;
+import com.cst438.domain.OutboxMessageRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/*
+ * Transactional outbox for messages to the registrar service.
+ * enqueue writes the message in the caller's transaction, so it is stored
+ * only if the data change commits.  relay runs in the background and
+ * publishes pending messages in batches through RegistrarServiceProxy.
+ * A message is deleted only after the broker has confirmed it, so delivery
+ * is at least once.
+ */
+@Service
+public class RegistrarOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrarOutbox.class);
+
+    private final OutboxMessageRepository outboxRepository;
+    private final RegistrarServiceProxy registrar;
+    private final ObjectMapper mapper;
+    private final int batchSize;
+
+    public RegistrarOutbox(
+            OutboxMessageRepository outboxRepository,
+            RegistrarServiceProxy registrar,
+            ObjectMapper mapper,
+            @Value("${registrar.outbox.batch-size:100}") int batchSize
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.registrar = registrar;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String cmd, Object obj) {
+        OutboxMessage m = new OutboxMessage();
+        m.setCommand(cmd);
+        try {
+            m.setPayload(mapper.writeValueAsString(obj));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        m.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+        outboxRepository.save(m);
+    }
+
+    @Scheduled(fixedDelayString = "${registrar.outbox.poll-interval:500}")
+    public void relay() {
+        List<OutboxMessage> batch;
+        do {
+            batch = outboxRepository.findByOrderByOutboxIdAsc(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                registrar.sendMessages(batch.stream()
+                        .map(m -> m.getCommand() + " " + m.getPayload())
+                        .toList());
+            } catch (AmqpException e) {
+                // leave the batch in the outbox and retry on the next poll
+                log.warn("outbox publish failed: {}", e.getMessage());
+                return;
+            }
+            outboxRepository.deleteByOutboxIdIn(batch.stream().map(OutboxMessage::getOutboxId).toList());
+        } while (batch.size() == batchSize);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cst438.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/*
+ * Consumer lag of the registrar listener: the number of messages waiting in the
+ * gradebook_service queue and the number of consumers attached to it.
+ * The broker is polled on a schedule rather than on every scrape; both gauges
+ * report NaN while the broker cannot be reached.
+ */
+@Service
+public class RegistrarQueueMonitor {
+
+    static final String QUEUE = "gradebook_service";
+
+    private final AmqpAdmin amqpAdmin;
+    private volatile double depth = Double.NaN;
+    private volatile double consumers = Double.NaN;
+
+    public RegistrarQueueMonitor(AmqpAdmin amqpAdmin, MeterRegistry registry) {
+        this.amqpAdmin = amqpAdmin;
+        Gauge.builder("gradebook.registrar.queue.depth", this, m -> m.depth)
+                .description("messages waiting in the registrar queue")
+                .tag("queue", QUEUE)
+                .register(registry);
+        Gauge.builder("gradebook.registrar.queue.consumers", this, m -> m.consumers)
+                .description("consumers attached to the registrar queue")
+                .tag("queue", QUEUE)
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${registrar.queue.poll-interval:10000}")
+    public void poll() {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(QUEUE);
+            depth = info == null ? Double.NaN : info.getMessageCount();
+            consumers = info == null ? Double.NaN : info.getConsumerCount();
+        } catch (AmqpException e) {
+            depth = Double.NaN;
+            consumers = Double.NaN;
+        }
+    }
+}
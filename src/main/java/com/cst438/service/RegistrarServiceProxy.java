@@ -3,16 +3,29 @@ package com.cst438.service;
 import com.cst438.domain.*;
 import com.cst438.dto.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RegistrarServiceProxy {
 
+    private static final Logger log = LoggerFactory.getLogger(RegistrarServiceProxy.class);
+
     @Autowired
     CourseRepository courseRepository;
 
@@ -29,6 +42,8 @@ public class RegistrarServiceProxy {
     TermRepository termRepository;
 
 
+    private static final long CONFIRM_TIMEOUT_MS = 10000;
+
     Queue registrarServiceQueue = new Queue("registrar_service", true);
 
     @Bean
@@ -39,12 +54,55 @@ public class RegistrarServiceProxy {
     @Autowired
     RabbitTemplate rabbitTemplate;
 
-    @RabbitListener(queues = "gradebook_service")
+    // the Spring managed mapper with readers and writers created once per DTO type,
+    // so serializers are not rebuilt for every message
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private Map<Class<?>, ObjectReader> jsonReaders;
+    private final Map<Class<?>, ObjectWriter> jsonWriters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void createJsonReaders() {
+        jsonReaders = Map.of(
+                CourseDTO.class, objectMapper.readerFor(CourseDTO.class),
+                SectionDTO.class, objectMapper.readerFor(SectionDTO.class),
+                UserPasswordDTO.class, objectMapper.readerFor(UserPasswordDTO.class),
+                EnrollmentDTO.class, objectMapper.readerFor(EnrollmentDTO.class));
+        jsonWriters.put(EnrollmentDTO.class, objectMapper.writerFor(EnrollmentDTO.class));
+    }
+
+    @Autowired
+    RegistrarBatchApplier batchApplier;
+
+    @Autowired
+    UserDetailsCache userDetailsCache;
+
+    @Autowired
+    GradeStatistics gradeStatistics;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // batch mode: messages are consumed in chunks and written with JDBC batches,
+    // see RegistrarBatchApplier.  set registrar.listener.batch=false to consume
+    // one message at a time with receiveFromRegistrar.
+    @RabbitListener(queues = "gradebook_service", containerFactory = "registrarBatchListenerFactory",
+            autoStartup = "${registrar.listener.batch:true}")
+    public void receiveBatchFromRegistrar(List<String> messages) {
+        log.debug("received batch of {}", messages.size());
+        batchApplier.apply(messages, this);
+    }
+
+    @RabbitListener(queues = "gradebook_service", autoStartup = "#{!${registrar.listener.batch:true}}")
     public void receiveFromRegistrar(String message) {
 
-        System.out.println("received " + message);
+        log.debug("received {}", message);
+        String[] parts = message.split(" ", 2);
         try {
-            String[] parts = message.split(" ", 2);
             switch (parts[0]) {
                 case "addCourse":
                 case "updateCourse":
@@ -89,10 +147,20 @@ public class RegistrarServiceProxy {
                     u.setEmail(uto.email());
                     u.setPassword(uto.password());
                     u.setType(uto.type());
+                    // the email may have changed, evict the old and the new one
+                    userRepository.findById(uto.id())
+                            .ifPresent(old -> userDetailsCache.removeUserFromCache(old.getEmail()));
                     userRepository.save(u);
+                    userDetailsCache.removeUserFromCache(uto.email());
                     break;
                 case "deleteUser":
-                    userRepository.deleteById(Integer.parseInt(parts[1]));
+                    int userId = Integer.parseInt(parts[1]);
+                    userRepository.findById(userId)
+                            .ifPresent(old -> userDetailsCache.removeUserFromCache(old.getEmail()));
+                    transactionTemplate.executeWithoutResult(status -> {
+                        gradeStatistics.retractUsers(List.of(userId));
+                        userRepository.deleteById(userId);
+                    });
                     break;
 
                 case "addEnrollment":
@@ -107,32 +175,59 @@ public class RegistrarServiceProxy {
                     enrollmentRepository.save(e);
                     break;
                 case "deleteEnrollment":
-                    enrollmentRepository.deleteById(Integer.parseInt(parts[1]));
+                    int enrollmentId = Integer.parseInt(parts[1]);
+                    transactionTemplate.executeWithoutResult(status -> {
+                        gradeStatistics.retractEnrollments(List.of(enrollmentId));
+                        enrollmentRepository.deleteById(enrollmentId);
+                    });
                     break;
                 default:
-                    System.out.println("Error. unknown message " + parts[0]);
+                    log.warn("unknown registrar message {}", parts[0]);
+                    countMessage("unknown", "failure");
+                    return;
             }
+            countMessage(parts[0], "success");
         } catch (Exception e) {
-            System.out.println("Exception "+e.getMessage());
+            log.warn("registrar message {} failed: {}", parts[0], e.getMessage());
+            countMessage(parts[0], "failure");
         }
     }
 
+    // gradebook.registrar.messages, registrar messages applied by command and outcome
+    void countMessage(String command, String outcome) {
+        meterRegistry.counter("gradebook.registrar.messages", "command", command, "outcome", outcome).increment();
+    }
+
     public void sendMessage(String cmd, Object obj) {
         String msg = cmd +" "+ asJsonString(obj);
-        System.out.println("Sending "+msg);
+        log.debug("sending {}", msg);
         rabbitTemplate.convertAndSend(registrarServiceQueue.getName(), msg);
     }
 
-    private static String asJsonString(final Object obj) {
+    // publish a batch of messages and wait until the broker confirms all of them.
+    // requires spring.rabbitmq.publisher-confirm-type=simple
+    public void sendMessages(List<String> messages) {
+        rabbitTemplate.invoke(ops -> {
+            for (String msg : messages) {
+                log.debug("sending {}", msg);
+                ops.convertAndSend(registrarServiceQueue.getName(), msg);
+            }
+            ops.waitForConfirmsOrDie(CONFIRM_TIMEOUT_MS);
+            return null;
+        });
+    }
+
+    private String asJsonString(final Object obj) {
         try {
-            return new ObjectMapper().writeValueAsString(obj);
+            return jsonWriters.computeIfAbsent(obj.getClass(), objectMapper::writerFor).writeValueAsString(obj);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
-    private static <T> T  fromJsonString(String str, Class<T> valueType ) {
+    <T> T  fromJsonString(String str, Class<T> valueType ) {
         try {
-            return new ObjectMapper().readValue(str, valueType);
+            ObjectReader reader = jsonReaders.get(valueType);
+            return reader != null ? reader.readValue(str) : objectMapper.readValue(str, valueType);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
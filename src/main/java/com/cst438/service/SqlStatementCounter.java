@@ -0,0 +1,28 @@
+package com.cst438.service;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Registered as the Hibernate statement inspector, reset and read per request
+ * by the filter in MetricsConfiguration.  Statements sent with JdbcTemplate
+ * do not go through Hibernate and are not counted.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public int count() {
+        return COUNT.get()[0];
+    }
+}
@@ -0,0 +1,70 @@
+package com.cst438.service;
+
+import com.cst438.dto.AssignmentStudentDTO;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/*
+ * Reads a student's assignments and scores for a term through R2DBC, the same
+ * query as AssignmentRepository.findStudentAssignmentsByStudentEmailAndYearAndSemester.
+ * Rows are emitted as the driver reads them and no request thread waits on the
+ * database.  The connection factory is not a bean: Boot's R2DBC auto-configuration
+ * is excluded, so schema.sql, data.sql and the transactions stay on JDBC.
+ * student.r2dbc.url must name the same database as spring.datasource.url.
+ */
+@Service
+public class StudentAssignmentReader {
+
+    private static final String STUDENT_ASSIGNMENTS_SQL =
+            "select a.assignment_id, a.title, a.due_date, c.course_id, s.section_id, g.score " +
+            "from enrollment e join section s on s.section_no = e.section_no " +
+            "join course c on c.course_id = s.course_id join term t on t.term_id = s.term_id " +
+            "join assignment a on a.section_no = s.section_no " +
+            "left join grade g on g.assignment_id = a.assignment_id and g.enrollment_id = e.enrollment_id " +
+            "where e.user_id in (select u.id from user_table u where u.email = :email) " +
+            "and t.tyear = :year and t.semester = :semester " +
+            "order by a.due_date";
+
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient client;
+
+    public StudentAssignmentReader(@Value("${student.r2dbc.url}") String url) {
+        this.connectionFactory = ConnectionFactories.get(url);
+        this.client = DatabaseClient.create(connectionFactory);
+    }
+
+    // closes the connection pool, when the url asks for one
+    @PreDestroy
+    void close() {
+        if (connectionFactory instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+
+    public Flux<AssignmentStudentDTO> findStudentAssignments(String email, int year, String semester) {
+        return client.sql(STUDENT_ASSIGNMENTS_SQL)
+                .bind("email", email)
+                .bind("year", year)
+                .bind("semester", semester)
+                .map((row, metadata) -> {
+                    LocalDate dueDate = row.get("due_date", LocalDate.class);
+                    return new AssignmentStudentDTO(
+                            row.get("assignment_id", Integer.class),
+                            row.get("title", String.class),
+                            dueDate == null ? null : Date.valueOf(dueDate),
+                            row.get("course_id", String.class),
+                            row.get("section_id", Integer.class),
+                            row.get("score", Integer.class));
+                })
+                .all();
+    }
+}
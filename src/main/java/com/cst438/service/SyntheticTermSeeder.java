@@ -0,0 +1,238 @@
+package com.cst438.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Generates a large, reproducible term for load testing and profiling.
+ * The same (students, sections, assignmentsPerSection, seed) always produces the
+ * same rows.  Section popularity follows a Zipf-like curve, so a few sections are
+ * very large and most are small.  Assignments due in the first half of the term
+ * have grades, the rest do not, so both grade sheet paths are exercised.
+ *
+ * The users, courses and sections it creates have synthetic = true, and reset()
+ * removes those and the enrollments, assignments and grades that belong to them,
+ * never rows by id range.  Ids are taken from ranges far above the sequences and
+ * data.sql only so they do not collide with the application's rows.
+ *
+ * Only registered when test.synthetic-term.enabled is true, off by default.
+ */
+@Service
+@ConditionalOnProperty(name = "test.synthetic-term.enabled", havingValue = "true")
+public class SyntheticTermSeeder {
+
+    static final int USER_BASE = 1_000_000;
+    static final int SECTION_BASE = 1_000_000;
+    static final int ASSIGNMENT_BASE = 1_000_000;
+    static final int ENROLLMENT_BASE = 10_000_000;
+    static final int GRADE_BASE = 100_000_000;
+    static final String COURSE_PREFIX = "syn";
+
+    // Fall 2025 from data.sql
+    static final int TERM_ID = 10;
+
+    // passwords are sam2025 for students and ted2025 for instructors, as in data.sql
+    private static final String STUDENT_PASSWORD = "$2a$10$B3E9IWa9fCy1SaMzfg1czu312d0xRAk1OU2sw5WOE7hs.SsLqGE9O";
+    private static final String INSTRUCTOR_PASSWORD = "$2a$10$YU83ETxvPriw/t2Kd2wO8u8LoKRtl9auX2MsUAtNIIQuKROBvltdy";
+
+    private static final int BATCH_SIZE = 1000;
+    private static final double ZIPF_EXPONENT = 0.8;
+
+    public record Summary(int students, int instructors, int sections, int enrollments, int assignments, int grades) { }
+
+    private final JdbcTemplate jdbc;
+    private final UserDetailsCache userDetailsCache;
+    private final ReferenceDataCache referenceDataCache;
+
+    public SyntheticTermSeeder(JdbcTemplate jdbc, UserDetailsCache userDetailsCache, ReferenceDataCache referenceDataCache) {
+        this.jdbc = jdbc;
+        this.userDetailsCache = userDetailsCache;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    public Summary seed(int students, int sections, int assignmentsPerSection, long seed) {
+        if (students < 1 || sections < 1 || assignmentsPerSection < 0) {
+            throw new IllegalArgumentException("students and sections must be positive, assignmentsPerSection must not be negative");
+        }
+        reset();
+        Random random = new Random(seed);
+        int instructors = Math.max(1, sections / 3);
+        int courses = Math.max(1, sections / 4);
+
+        Batch users = new Batch("insert into user_table (id, name, email, password, type, synthetic) values (?, ?, ?, ?, ?, true)");
+        for (int i = 0; i < instructors; i++) {
+            users.add(USER_BASE + i, "instructor" + i, instructorEmail(i), INSTRUCTOR_PASSWORD, "INSTRUCTOR");
+        }
+        for (int i = 0; i < students; i++) {
+            users.add(USER_BASE + instructors + i, "student" + i, "s" + i + "@synthetic.csumb.edu", STUDENT_PASSWORD, "STUDENT");
+        }
+        users.flush();
+
+        Batch courseRows = new Batch("insert into course (course_id, title, credits, synthetic) values (?, ?, ?, true)");
+        for (int i = 0; i < courses; i++) {
+            courseRows.add(COURSE_PREFIX + i, "Synthetic Course " + i, 4);
+        }
+        courseRows.flush();
+
+        Batch sectionRows = new Batch("insert into section (section_no, course_id, section_id, term_id, building, room, times, instructor_email, synthetic) " +
+                "values (?, ?, ?, ?, ?, ?, ?, ?, true)");
+        for (int i = 0; i < sections; i++) {
+            sectionRows.add(SECTION_BASE + i, COURSE_PREFIX + (i % courses), i / courses + 1, TERM_ID,
+                    "B" + (1 + random.nextInt(20)), String.valueOf(100 + random.nextInt(300)), "M W " + (8 + i % 10) + ":00",
+                    instructorEmail(random.nextInt(instructors)));
+        }
+        sectionRows.flush();
+
+        // each student takes 3 to 5 distinct sections, picked by popularity
+        double[] popularity = popularity(sections, random);
+        List<List<int[]>> roster = new ArrayList<>(sections);
+        for (int i = 0; i < sections; i++) {
+            roster.add(new ArrayList<>());
+        }
+        Batch enrollments = new Batch("insert into enrollment (enrollment_id, grade, section_no, user_id) values (?, null, ?, ?)");
+        int enrollmentId = ENROLLMENT_BASE;
+        for (int s = 0; s < students; s++) {
+            // ability is the mean score of the student, kept with the enrollment for the grade pass
+            int ability = (int) Math.round(78 + random.nextGaussian() * 8);
+            int load = Math.min(sections, 3 + random.nextInt(3));
+            List<Integer> taken = new ArrayList<>(load);
+            while (taken.size() < load) {
+                int section = pick(popularity, random);
+                if (!taken.contains(section)) {
+                    taken.add(section);
+                    roster.get(section).add(new int[]{enrollmentId, ability});
+                    enrollments.add(enrollmentId++, SECTION_BASE + section, USER_BASE + instructors + s);
+                }
+            }
+        }
+        enrollments.flush();
+
+        LocalDate start = jdbc.queryForObject("select start_date from term where term_id = ?", Date.class, TERM_ID).toLocalDate();
+        LocalDate end = jdbc.queryForObject("select end_date from term where term_id = ?", Date.class, TERM_ID).toLocalDate();
+        long termDays = ChronoUnit.DAYS.between(start, end);
+        LocalDate gradedBefore = start.plusDays(termDays / 2);
+
+        Batch assignments = new Batch("insert into assignment (assignment_id, section_no, title, due_date) values (?, ?, ?, ?)");
+        LocalDate[] due = new LocalDate[assignmentsPerSection];
+        for (int a = 0; a < assignmentsPerSection; a++) {
+            due[a] = start.plusDays(termDays * (a + 1) / (assignmentsPerSection + 1));
+        }
+        int assignmentId = ASSIGNMENT_BASE;
+        for (int i = 0; i < sections; i++) {
+            for (int a = 0; a < assignmentsPerSection; a++) {
+                assignments.add(assignmentId++, SECTION_BASE + i, "Assignment " + (a + 1), Date.valueOf(due[a]));
+            }
+        }
+        assignments.flush();
+
+        Batch grades = new Batch("insert into grade (grade_id, enrollment_id, assignment_id, score) values (?, ?, ?, ?)");
+        int gradeId = GRADE_BASE;
+        for (int i = 0; i < sections; i++) {
+            for (int a = 0; a < assignmentsPerSection && due[a].isBefore(gradedBefore); a++) {
+                for (int[] enrollment : roster.get(i)) {
+                    // a few students did not turn the assignment in
+                    Integer score = random.nextInt(100) < 4 ? null
+                            : Math.max(0, Math.min(100, (int) Math.round(enrollment[1] + random.nextGaussian() * 10)));
+                    grades.add(gradeId++, enrollment[0], ASSIGNMENT_BASE + i * assignmentsPerSection + a, score);
+                }
+            }
+        }
+        grades.flush();
+        // the score statistics of the new assignments, see GradeStatistics
+        jdbc.update("insert into grade_histogram (assignment_id, score, graded) " +
+                "select g.assignment_id, g.score, count(*) from grade g join assignment a on a.assignment_id = g.assignment_id " +
+                "join section s on s.section_no = a.section_no where s.synthetic and g.score is not null " +
+                "group by g.assignment_id, g.score");
+
+        return new Summary(students, instructors, sections, enrollmentId - ENROLLMENT_BASE,
+                assignmentId - ASSIGNMENT_BASE, gradeId - GRADE_BASE);
+    }
+
+    // removes the rows marked synthetic and everything that belongs to them,
+    // including grades and assignments the application added to synthetic
+    // sections since.  grades and score statistics go with their assignments
+    // and enrollments, by the cascading foreign keys.
+    public void reset() {
+        jdbc.update("delete from assignment where section_no in (select section_no from section where synthetic)");
+        jdbc.update("delete from enrollment where section_no in (select section_no from section where synthetic) " +
+                "or user_id in (select id from user_table where synthetic)");
+        jdbc.update("delete from section where synthetic");
+        jdbc.update("delete from user_table where synthetic");
+        jdbc.update("delete from course where synthetic");
+        userDetailsCache.removeAll();
+        referenceDataCache.evictAll();
+    }
+
+    static String instructorEmail(int i) {
+        return "i" + i + "@synthetic.csumb.edu";
+    }
+
+    // cumulative Zipf-like weights over the sections in a shuffled order,
+    // so the large sections are spread over the section numbers
+    private static double[] popularity(int sections, Random random) {
+        int[] rank = new int[sections];
+        for (int i = 0; i < sections; i++) {
+            rank[i] = i;
+        }
+        for (int i = sections - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = rank[i];
+            rank[i] = rank[j];
+            rank[j] = t;
+        }
+        double[] cumulative = new double[sections];
+        double total = 0;
+        for (int i = 0; i < sections; i++) {
+            total += 1.0 / Math.pow(rank[i] + 1, ZIPF_EXPONENT);
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    private static int pick(double[] cumulative, Random random) {
+        double r = random.nextDouble() * cumulative[cumulative.length - 1];
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] < r) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // rows for one insert statement, sent as a JDBC batch every BATCH_SIZE rows
+    private class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+}
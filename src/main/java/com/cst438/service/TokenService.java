@@ -1,5 +1,7 @@
 package com.cst438.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
@@ -14,6 +16,8 @@ import java.util.stream.Collectors;
 @Service
 public class TokenService {
 
+	private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
 	private final JwtEncoder encoder;
 	
 	public TokenService(JwtEncoder encoder) {
@@ -23,11 +27,7 @@ public class TokenService {
 	public String generateToken(Authentication authentication) {
 		Instant now = Instant.now();
 
-		System.out.println("name "+authentication.getName());
-		for (GrantedAuthority a : authentication.getAuthorities()) {
-			System.out.println("Authority "+a.getAuthority());
-		}
-
+		log.debug("issuing token for {} with {}", authentication.getName(), authentication.getAuthorities());
 
 		String scope = authentication.getAuthorities().stream()
 				.map(GrantedAuthority::getAuthority)
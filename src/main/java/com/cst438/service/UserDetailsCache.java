@@ -0,0 +1,49 @@
+package com.cst438.service;
+
+import com.cst438.LoginProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+/*
+ * Bounded cache of UserDetails for HTTP Basic login, entries expire after
+ * login.user-cache-ttl.  Registrar user messages evict entries so a changed
+ * password or deleted user is seen on the next login.
+ * Copies are stored and returned because Spring Security erases the password
+ * of the UserDetails it authenticated.
+ */
+@Service
+public class UserDetailsCache implements UserCache {
+
+    private final Cache<String, UserDetails> cache;
+
+    public UserDetailsCache(LoginProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.userCacheSize())
+                .expireAfterWrite(properties.userCacheTtl())
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = cache.getIfPresent(username);
+        return user == null ? null : User.withUserDetails(user).build();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), User.withUserDetails(user).build());
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+    }
+
+    public void removeAll() {
+        cache.invalidateAll();
+    }
+}
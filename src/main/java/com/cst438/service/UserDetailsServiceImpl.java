@@ -2,6 +2,8 @@ package com.cst438.service;
 
 import com.cst438.domain.User;
 import com.cst438.domain.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.User.UserBuilder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +13,9 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService  {
+
+	private static final Logger log = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
+
 	@Autowired
 	private UserRepository repository;
 
@@ -25,7 +30,7 @@ public class UserDetailsServiceImpl implements UserDetailsService  {
 			// setting role to XXXX is equivalent to the authority ROLE_XXXX
 			builder.roles(currentUser.getType());
 		} else {
-			System.out.println("User not found.");
+			log.debug("user not found {}", username);
 			throw new UsernameNotFoundException("User not found.");
 		}
 
@@ -12,7 +12,7 @@ values (1, 'admin', 'admin@csumb.edu', '$2a$10$8cjz47bjbR4Mn8GMg9IZx.vyjhLXR/SKK
        (7, 'samc', 'samc@csumb.edu', '$2a$10$B3E9IWa9fCy1SaMzfg1czu312d0xRAk1OU2sw5WOE7hs.SsLqGE9O', 'STUDENT');
 
 
-insert into course
+insert into course (course_id, title, credits)
 values ('cst336', 'Internet Programming', 4),
        ('cst334', 'Operating Systems', 4),
        ('cst363', 'Introduction to Database', 4),
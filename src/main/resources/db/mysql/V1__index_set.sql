@@ -0,0 +1,17 @@
+-- index set v1 for MySQL, the same indexes as the index set in schema.sql.
+-- apply once to a MySQL gradebook database that has the tables:
+--   mysql gradebook < V1__index_set.sql
+-- the index_set row is what IndexSetCheck reads at startup.
+create table if not exists index_set (
+   version int primary key,
+   applied_at timestamp default current_timestamp not null
+);
+
+create unique index term_year_semester_ix on term(tyear, semester);
+create index section_instructor_term_ix on section(instructor_email, term_id);
+create index enrollment_section_user_ix on enrollment(section_no, user_id);
+create index enrollment_user_section_ix on enrollment(user_id, section_no);
+create index assignment_section_due_ix on assignment(section_no, due_date);
+create unique index grade_enrollment_assignment_ix on grade(enrollment_id, assignment_id);
+
+insert into index_set (version) values (1);
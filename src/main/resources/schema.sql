@@ -12,7 +12,9 @@ create table term (
 create table course (
     course_id varchar(10) primary key,
     title varchar(100) not null,
-    credits int not null check (credits >= 0)
+    credits int not null check (credits >= 0),
+    -- rows of SyntheticTermSeeder, see its reset()
+    synthetic boolean default false not null
 );
 
 create sequence sec_seq START WITH 1000;
@@ -26,6 +28,7 @@ create table section (
                          room varchar(10),
                          times varchar(25),
                          instructor_email varchar(50),
+                         synthetic boolean default false not null,
                          foreign key(course_id) references course(course_id),
                          foreign key(term_id) references term(term_id)
 );
@@ -37,7 +40,8 @@ create table user_table (
                             name varchar(50) not null,
                             email varchar(50) not null unique,
                             password varchar(100) not null,
-                            type varchar(10) not null  check (type in ('STUDENT', 'ADMIN', 'INSTRUCTOR'))
+                            type varchar(10) not null  check (type in ('STUDENT', 'ADMIN', 'INSTRUCTOR')),
+                            synthetic boolean default false not null
 );
 
 create sequence enroll_seq START WITH 10000;
@@ -51,7 +55,7 @@ create table enrollment (
                             foreign key(user_id) references user_table(id) on delete cascade
 );
 
-create sequence assignment_seq START WITH 6000;
+create sequence assignment_seq START WITH 6000 INCREMENT BY 50;
 
 create table assignment (
     assignment_id int  default next value for assignment_seq primary key,
@@ -61,7 +65,7 @@ create table assignment (
     foreign key (section_no) references section(section_no)
 );
 
-create sequence grade_seq START WITH 12000;
+create sequence grade_seq START WITH 12000 INCREMENT BY 50;
 
 create table grade (
    grade_id int default next value for grade_seq primary key,
@@ -71,3 +75,40 @@ create table grade (
    foreign key(enrollment_id) references enrollment(enrollment_id) on delete cascade,
    foreign key(assignment_id) references assignment(assignment_id) on delete cascade
 );
+
+-- index set v1, the same indexes as db/mysql/V1__index_set.sql.
+-- columns already covered by a primary key, unique constraint or the
+-- leading column of an index below are not indexed again.
+-- the applied version is recorded in index_set and checked at startup by
+-- IndexSetCheck, a new version adds a script and a row.
+create table index_set (
+   version int primary key,
+   applied_at timestamp default current_timestamp not null
+);
+create unique index term_year_semester_ix on term(tyear, semester);
+create index section_instructor_term_ix on section(instructor_email, term_id);
+create index enrollment_section_user_ix on enrollment(section_no, user_id);
+create index enrollment_user_section_ix on enrollment(user_id, section_no);
+create index assignment_section_due_ix on assignment(section_no, due_date);
+create unique index grade_enrollment_assignment_ix on grade(enrollment_id, assignment_id);
+insert into index_set (version) values (1);
+
+-- number of grades of an assignment with each score, the rows of an assignment
+-- are enough to compute its count, sum, sum of squares, median and distribution.
+-- kept up to date by GradeStatistics in the transaction that changes the scores.
+create table grade_histogram (
+   assignment_id int not null,
+   score int not null check (score between 0 and 100),
+   graded int not null,
+   primary key (assignment_id, score),
+   foreign key(assignment_id) references assignment(assignment_id) on delete cascade
+);
+
+create sequence outbox_seq START WITH 1;
+
+create table registrar_outbox (
+   outbox_id int default next value for outbox_seq primary key,
+   command varchar(30) not null,
+   payload varchar(4000) not null,
+   created_at timestamp not null
+);
@@ -0,0 +1,87 @@
+package com.cst438.controller;
+
+import com.cst438.dto.AssignmentStudentDTO;
+import com.cst438.dto.LoginDTO;
+import com.cst438.service.RegistrarServiceProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class AssignmentStreamTest {
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    @BeforeEach
+    public void setup() {
+        // two assignments in section 2, Fall 2025. sama (enrollment 1) has a score for the first
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values " +
+                "(830, 2, 'stream hw1', '2025-09-01'), (831, 2, 'stream hw2', '2025-09-08')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values (830, 1, 830, 88)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.update("delete from grade where assignment_id in (830, 831)");
+        jdbc.update("delete from grade_histogram where assignment_id in (830, 831)");
+        jdbc.update("delete from assignment where assignment_id in (830, 831)");
+    }
+
+    @Test
+    public void streamMatchesList() {
+        String jwt = client.get().uri("/login")
+                .headers(h -> h.setBasicAuth("sama@csumb.edu", "sam2025"))
+                .exchange().expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+
+        List<AssignmentStudentDTO> list = assignments(jwt, MediaType.APPLICATION_JSON);
+        List<AssignmentStudentDTO> stream = assignments(jwt, MediaType.APPLICATION_NDJSON);
+
+        assertEquals(list, stream);
+        AssignmentStudentDTO hw1 = stream.stream().filter(a -> a.assignmentId() == 830).findFirst().orElseThrow();
+        assertEquals("stream hw1", hw1.title());
+        assertEquals("cst599", hw1.courseId());
+        assertEquals(88, hw1.score());
+        assertNull(stream.stream().filter(a -> a.assignmentId() == 831).findFirst().orElseThrow().score());
+    }
+
+    @Test
+    public void streamNeedsStudent() {
+        String jwt = client.get().uri("/login")
+                .headers(h -> h.setBasicAuth("ted@csumb.edu", "ted2025"))
+                .exchange().expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+
+        client.get().uri("/assignments?year=2025&semester=Fall")
+                .headers(h -> h.setBearerAuth(jwt))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private List<AssignmentStudentDTO> assignments(String jwt, MediaType mediaType) {
+        return client.get().uri("/assignments?year=2025&semester=Fall")
+                .headers(h -> h.setBearerAuth(jwt))
+                .accept(mediaType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(mediaType)
+                .expectBodyList(AssignmentStudentDTO.class).returnResult().getResponseBody();
+    }
+}
@@ -18,6 +18,8 @@ import java.util.Random;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -28,6 +30,8 @@ public class EnrollmentControllerUnitTest {
     private WebTestClient client ;
     @Autowired
     private EnrollmentRepository enrollmentRepository;
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
 
     // default behavior for a Mock bean
     // return 0 or null for a method that returns a value
@@ -188,4 +192,45 @@ public class EnrollmentControllerUnitTest {
                 // check the list of validation messages
                 .jsonPath("$.errors[?(@=='enrollment id not found')]").exists();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGradeUpdatePublishedFromOutbox() throws Exception {
+
+        // login as instructor of section 2 and get the security token
+        String instructorEmail = "ted@csumb.edu";
+        String password = "ted2025";
+
+        EntityExchangeResult<LoginDTO> login_dto = client.get().uri("/login")
+                .headers(headers -> headers.setBasicAuth(instructorEmail, password))
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult();
+
+        String jwt = login_dto.getResponseBody().jwt();
+        assertNotNull(jwt);
+
+        ArrayList<EnrollmentDTO> updates = new ArrayList<EnrollmentDTO>();
+        updates.add(new EnrollmentDTO(
+                1, "B", 5, null, null, null, null, 1, 2, null, null, null, 4, 2025, null
+        ));
+        client.put().uri("/enrollments")
+                .headers(headers -> headers.setBearerAuth(jwt))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(updates)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk();
+
+        // the outbox relay publishes the message through the (mock) registrar proxy
+        // and removes it from the outbox
+        verify(registrarService, timeout(5000)).sendMessages(argThat(messages ->
+                messages.stream().anyMatch(m -> m.startsWith("updateEnrollment ") && m.contains("\"grade\":\"B\""))));
+        // the relay deletes the message after sendMessages returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outboxMessageRepository.count() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, outboxMessageRepository.count());
+    }
+}
@@ -0,0 +1,201 @@
+package com.cst438.controller;
+
+import com.cst438.dto.*;
+import com.cst438.service.RegistrarServiceProxy;
+import com.cst438.service.SyntheticTermSeeder;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// SQL statements run by each endpoint on a section of 40 students, read from the
+// gradebook.sql.statements metric.  the counts must not grow with the section,
+// an N+1 fetch shows up as 40 or more.  every request is sent twice and the
+// second one is counted, so the login and reference data caches are warm.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class FetchPlanTest {
+
+    private static final int STUDENTS = 40;
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private SyntheticTermSeeder seeder;
+    @Autowired
+    private MeterRegistry registry;
+    @Autowired
+    private EnrollmentController enrollmentController;
+    @Autowired
+    private GradeController gradeController;
+    @Autowired
+    private AssignmentController assignmentController;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    private String instructorJwt;
+    private String studentJwt;
+    private int secNo;
+    private int secId;
+    private String courseId;
+    private int assignmentId;
+
+    @BeforeEach
+    public void setup() {
+        // one section with every student, two assignments
+        seeder.seed(STUDENTS, 1, 2, 438);
+        Map<String, Object> section = jdbc.queryForMap("select s.section_no, s.section_id, s.course_id, min(a.assignment_id) a " +
+                "from section s join assignment a on a.section_no = s.section_no " +
+                "where s.instructor_email = 'i0@synthetic.csumb.edu' group by s.section_no, s.section_id, s.course_id");
+        secNo = (Integer) section.get("SECTION_NO");
+        secId = (Integer) section.get("SECTION_ID");
+        courseId = (String) section.get("COURSE_ID");
+        assignmentId = (Integer) section.get("A");
+        instructorJwt = login("i0@synthetic.csumb.edu", "ted2025");
+        studentJwt = login("s0@synthetic.csumb.edu", "sam2025");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        seeder.reset();
+    }
+
+    @Test
+    public void instructorEndpoints() {
+        assertEquals(1, statements(HttpMethod.GET, "/sections?year=2025&semester=Fall", "/sections", instructorJwt, null));
+        assertEquals(1, statements(HttpMethod.GET, "/sections/" + secNo + "/assignments", "/sections/{secNo}/assignments", instructorJwt, null));
+        assertEquals(1, statements(HttpMethod.GET, "/sections/" + secNo + "/enrollments", "/sections/{sectionNo}/enrollments", instructorJwt, null));
+        assertEquals(2, statements(HttpMethod.GET, "/sections/" + secNo + "/gradebook", "/sections/{secNo}/gradebook", instructorJwt, null));
+        assertEquals(3, statements(HttpMethod.GET, "/assignments/" + assignmentId + "/grades", "/assignments/{assignmentId}/grades", instructorJwt, null));
+        assertEquals(2, statements(HttpMethod.GET, "/assignments/" + assignmentId + "/statistics", "/assignments/{assignmentId}/statistics", instructorJwt, null));
+    }
+
+    @Test
+    public void instructorUpdates() {
+        // the insert, and the next value of assignment_seq once every 50 assignments
+        assertTrue(statements(HttpMethod.POST, "/assignments", "/assignments", instructorJwt,
+                new AssignmentDTO(0, "quiz", "2025-10-01", courseId, secId, secNo)) <= 2);
+        assertEquals(2, statements(HttpMethod.PUT, "/assignments", "/assignments", instructorJwt,
+                new AssignmentDTO(assignmentId, "quiz", "2025-10-02", courseId, secId, secNo),
+                new AssignmentDTO(assignmentId, "quiz", "2025-10-03", courseId, secId, secNo)));
+
+        List<GradeDTO> grades = client.get().uri("/assignments/" + assignmentId + "/grades")
+                .headers(h -> h.setBearerAuth(instructorJwt))
+                .exchange().expectStatus().isOk()
+                .expectBodyList(GradeDTO.class).returnResult().getResponseBody();
+        assertEquals(STUDENTS, grades.size());
+        // the grade locks, the grades with their enrollments and sections, and one batch of updates
+        assertEquals(3, statements(HttpMethod.PUT, "/grades", "/grades", instructorJwt, scores(grades, 80), scores(grades, 90)));
+
+        List<EnrollmentDTO> enrollments = client.get().uri("/sections/" + secNo + "/enrollments")
+                .headers(h -> h.setBearerAuth(instructorJwt))
+                .exchange().expectStatus().isOk()
+                .expectBodyList(EnrollmentDTO.class).returnResult().getResponseBody();
+        // the enrollment, its update and the outbox message
+        assertEquals(3, statements(HttpMethod.PUT, "/enrollments", "/enrollments", instructorJwt,
+                finalGrade(enrollments.get(0), "B"), finalGrade(enrollments.get(0), "A")));
+    }
+
+    @Test
+    public void studentEndpoints() {
+        assertEquals(1, statements(HttpMethod.GET, "/assignments?year=2025&semester=Fall", "/assignments", studentJwt, null));
+    }
+
+    // the controllers called directly, as ControllerBenchmark does.  without the
+    // open session of an HTTP request every lazy association must be read in
+    // the method's own transaction
+    @Test
+    public void controllersOutsideRequest() {
+        Principal instructor = () -> "i0@synthetic.csumb.edu";
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                instructor.getName(), null, AuthorityUtils.createAuthorityList("SCOPE_ROLE_INSTRUCTOR", "SCOPE_ROLE_STUDENT")));
+        try {
+            List<EnrollmentDTO> enrollments = enrollmentController.getEnrollments(secNo, instructor);
+            assertEquals(STUDENTS, enrollments.size());
+            assertEquals(courseId, enrollments.get(0).courseId());
+            assertEquals(2025, enrollments.get(0).year());
+            List<GradeDTO> grades = gradeController.getAssignmentGrades(assignmentId, instructor);
+            assertEquals(STUDENTS, grades.size());
+            gradeController.updateGrades(scores(grades, 75), instructor);
+            assertFalse(assignmentController.getStudentAssignments(2025, "Fall", () -> "s0@synthetic.csumb.edu").isEmpty());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static List<GradeDTO> scores(List<GradeDTO> grades, int score) {
+        return grades.stream().map(g -> new GradeDTO(g.gradeId(), g.studentName(), g.studentEmail(),
+                g.assignmentTitle(), g.courseId(), g.sectionId(), score)).toList();
+    }
+
+    private static List<EnrollmentDTO> finalGrade(EnrollmentDTO e, String grade) {
+        return List.of(new EnrollmentDTO(e.enrollmentId(), grade, e.studentId(), e.name(), e.email(), e.courseId(),
+                e.title(), e.sectionId(), e.sectionNo(), e.building(), e.room(), e.times(), e.credits(),
+                e.year(), e.semester()));
+    }
+
+    private String login(String email, String password) {
+        return client.get().uri("/login")
+                .headers(h -> h.setBasicAuth(email, password))
+                .exchange().expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+    }
+
+    // statements run by the second of two identical requests
+    private long statements(HttpMethod method, String uri, String pattern, String jwt, Object body) {
+        return statements(method, uri, pattern, jwt, body, body);
+    }
+
+    // statements run by the second of two requests, the first one warms the caches
+    private long statements(HttpMethod method, String uri, String pattern, String jwt, Object first, Object second) {
+        long count = count(method, pattern);
+        send(method, uri, jwt, first);
+        DistributionSummary summary = summary(method, pattern, count + 1);
+        double before = summary.totalAmount();
+        send(method, uri, jwt, second);
+        summary(method, pattern, count + 2);
+        return Math.round(summary.totalAmount() - before);
+    }
+
+    private long count(HttpMethod method, String pattern) {
+        DistributionSummary summary = registry.find("gradebook.sql.statements")
+                .tags("method", method.name(), "uri", pattern).summary();
+        return summary == null ? 0 : summary.count();
+    }
+
+    // the response can reach the client before the filter records the count
+    private DistributionSummary summary(HttpMethod method, String pattern, long count) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count(method, pattern) < count && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(count, count(method, pattern));
+        return registry.find("gradebook.sql.statements").tags("method", method.name(), "uri", pattern).summary();
+    }
+
+    private void send(HttpMethod method, String uri, String jwt, Object body) {
+        WebTestClient.RequestBodySpec request = client.method(method).uri(uri)
+                .headers(h -> h.setBearerAuth(jwt))
+                .contentType(MediaType.APPLICATION_JSON);
+        (body == null ? request : request.bodyValue(body)).exchange().expectStatus().isOk();
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -28,6 +29,8 @@ public class GradeControllerUnitTest {
     private WebTestClient client ;
     @Autowired
     private GradeRepository gradeRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
 
     // default behavior for a Mock bean
     // return 0 or null for a method that returns a value
@@ -183,4 +186,120 @@ public class GradeControllerUnitTest {
                 .jsonPath("$.errors[?(@=='grade id not found')]").exists();
     }
 
+    @Test
+    public void testGradebook() throws Exception {
+        // section 2 has enrollments 1, 2 and 3.  two assignments, three grades
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (800, 2, 'gb1', '2025-09-01'), (801, 2, 'gb2', '2025-09-08')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values (800, 1, 800, 90), (801, 2, 800, null), (802, 1, 801, 75)");
+        try {
+            String jwt = client.get().uri("/login")
+                    .headers(headers -> headers.setBasicAuth("ted@csumb.edu", "ted2025"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+
+            GradebookDTO gradebook = client.get().uri("/sections/2/gradebook")
+                    .headers(headers -> headers.setBearerAuth(jwt))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(GradebookDTO.class).returnResult().getResponseBody();
+
+            assertNotNull(gradebook);
+            int columns = gradebook.assignmentIds().length;
+            assertEquals(3, gradebook.enrollmentIds().length);
+            assertEquals(gradebook.enrollmentIds().length * columns, gradebook.scores().length);
+            assertEquals(90, score(gradebook, 1, 800));
+            assertEquals(75, score(gradebook, 1, 801));
+            assertNull(score(gradebook, 2, 800));
+            assertNull(score(gradebook, 2, 801));
+            assertNull(score(gradebook, 3, 800));
+
+            // another instructor may not read the gradebook
+            String jwt2 = client.get().uri("/login")
+                    .headers(headers -> headers.setBasicAuth("teddy@csumb.edu", "ted2025"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+            client.get().uri("/sections/2/gradebook")
+                    .headers(headers -> headers.setBearerAuth(jwt2))
+                    .exchange()
+                    .expectStatus().is4xxClientError();
+        } finally {
+            jdbc.update("delete from assignment where assignment_id in (800, 801)");
+        }
+    }
+
+    // score of an enrollment for an assignment, null if the cell is missing
+    private static Integer score(GradebookDTO gradebook, int enrollmentId, int assignmentId) {
+        int row = -1;
+        int column = -1;
+        for (int i = 0; i < gradebook.enrollmentIds().length; i++) {
+            if (gradebook.enrollmentIds()[i] == enrollmentId) row = i;
+        }
+        for (int j = 0; j < gradebook.assignmentIds().length; j++) {
+            if (gradebook.assignmentIds()[j] == assignmentId) column = j;
+        }
+        int k = row * gradebook.assignmentIds().length + column;
+        boolean missing = (gradebook.missing()[k >> 3] & (1 << (k & 7))) != 0;
+        return missing ? null : gradebook.scores()[k];
+    }
+
+    @Test
+    public void testAssignmentStatistics() throws Exception {
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (820, 2, 'stats', '2025-09-01')");
+        try {
+            String jwt = client.get().uri("/login")
+                    .headers(headers -> headers.setBasicAuth("ted@csumb.edu", "ted2025"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+
+            // the grade sheet creates the three grades with a null score
+            List<GradeDTO> sheet = client.get().uri("/assignments/820/grades")
+                    .headers(headers -> headers.setBearerAuth(jwt))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(GradeDTO.class).returnResult().getResponseBody();
+            assertEquals(3, sheet.size());
+
+            List<GradeDTO> update = new ArrayList<>();
+            Integer[] scores = {60, 80, null};
+            for (int i = 0; i < 3; i++) {
+                GradeDTO g = sheet.get(i);
+                update.add(new GradeDTO(g.gradeId(), g.studentName(), g.studentEmail(), g.assignmentTitle(),
+                        g.courseId(), g.sectionId(), scores[i]));
+            }
+            client.put().uri("/grades")
+                    .headers(headers -> headers.setBearerAuth(jwt))
+                    .bodyValue(update)
+                    .exchange()
+                    .expectStatus().isOk();
+            // change one score, the statistics follow
+            update.set(0, new GradeDTO(sheet.get(0).gradeId(), null, null, null, null, 0, 100));
+            client.put().uri("/grades")
+                    .headers(headers -> headers.setBearerAuth(jwt))
+                    .bodyValue(update.subList(0, 1))
+                    .exchange()
+                    .expectStatus().isOk();
+
+            AssignmentStatisticsDTO stats = client.get().uri("/assignments/820/statistics")
+                    .headers(headers -> headers.setBearerAuth(jwt))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(AssignmentStatisticsDTO.class).returnResult().getResponseBody();
+            assertNotNull(stats);
+            assertEquals(3, stats.enrolled());
+            assertEquals(2, stats.graded());
+            assertEquals(1, stats.missing());
+            assertEquals(90.0, stats.mean());
+            assertEquals(90.0, stats.median());
+            assertEquals(80, stats.low());
+            assertEquals(100, stats.high());
+            assertEquals(1, stats.distribution()[8]);
+            assertEquals(1, stats.distribution()[9]);
+        } finally {
+            jdbc.update("delete from assignment where assignment_id = 820");
+        }
+    }
 }
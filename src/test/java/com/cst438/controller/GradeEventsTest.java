@@ -0,0 +1,139 @@
+package com.cst438.controller;
+
+import com.cst438.dto.AssignmentStudentDTO;
+import com.cst438.dto.EnrollmentDTO;
+import com.cst438.dto.GradeDTO;
+import com.cst438.dto.LoginDTO;
+import com.cst438.service.RegistrarServiceProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GradeEventsTest {
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    @BeforeEach
+    public void setup() {
+        // an assignment in section 2 with ungraded grades for sama (enrollment 1) and samb (enrollment 2)
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (840, 2, 'events hw', '2025-09-15')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values (840, 1, 840, null), (841, 2, 840, null)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.update("delete from grade where assignment_id = 840");
+        jdbc.update("delete from grade_histogram where assignment_id = 840");
+        jdbc.update("delete from assignment where assignment_id = 840");
+        jdbc.update("update enrollment set grade = null where enrollment_id = 1");
+    }
+
+    @Test
+    public void scoresArePushedToTheirStudents() {
+        Flux<ServerSentEvent<AssignmentStudentDTO>> sama = subscribe(login("sama@csumb.edu", "sam2025"),
+                new ParameterizedTypeReference<>() { });
+        Flux<ServerSentEvent<AssignmentStudentDTO>> samb = subscribe(login("samb@csumb.edu", "sam2025"),
+                new ParameterizedTypeReference<>() { });
+
+        client.put().uri("/grades")
+                .headers(h -> h.setBearerAuth(login("ted@csumb.edu", "ted2025")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new GradeDTO(840, "sama", "sama@csumb.edu", "events hw", "cst599", 1, 91),
+                        new GradeDTO(841, "samb", "samb@csumb.edu", "events hw", "cst599", 1, 72)))
+                .exchange().expectStatus().isOk();
+
+        ServerSentEvent<AssignmentStudentDTO> a = next(sama);
+        assertEquals("assignment", a.event());
+        assertEquals(840, a.data().assignmentId());
+        assertEquals("events hw", a.data().title());
+        assertEquals("cst599", a.data().courseId());
+        assertEquals(91, a.data().score());
+        assertEquals(72, next(samb).data().score());
+    }
+
+    @Test
+    public void finalGradeIsPushed() {
+        Flux<ServerSentEvent<EnrollmentDTO>> sama = subscribe(login("sama@csumb.edu", "sam2025"),
+                new ParameterizedTypeReference<>() { });
+
+        client.put().uri("/enrollments")
+                .headers(h -> h.setBearerAuth(login("ted@csumb.edu", "ted2025")))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new EnrollmentDTO(1, "B", 5, "sama", "sama@csumb.edu", "cst599", "Capstone",
+                        1, 2, "90", "B104", "W F 10-11", 4, 2025, "Fall")))
+                .exchange().expectStatus().isOk();
+
+        ServerSentEvent<EnrollmentDTO> e = next(sama);
+        assertEquals("enrollment", e.event());
+        assertEquals(1, e.data().enrollmentId());
+        assertEquals("B", e.data().grade());
+        assertEquals(2, e.data().sectionNo());
+    }
+
+    @Test
+    public void eventsNeedStudent() {
+        client.get().uri("/assignments/events")
+                .headers(h -> h.setBearerAuth(login("ted@csumb.edu", "ted2025")))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void eventsNeedExistingUser() {
+        // a student who logs in and is then removed by the registrar
+        jdbc.update("insert into user_table (id, name, email, password, type) " +
+                "select 840, 'gone', 'gone@csumb.edu', password, 'STUDENT' from user_table where id = 5");
+        String jwt = login("gone@csumb.edu", "sam2025");
+        jdbc.update("delete from user_table where id = 840");
+
+        client.get().uri("/assignments/events")
+                .headers(h -> h.setBearerAuth(jwt))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    // the response headers arrive once the subscription is registered
+    private <T> Flux<ServerSentEvent<T>> subscribe(String jwt, ParameterizedTypeReference<ServerSentEvent<T>> type) {
+        return client.get().uri("/assignments/events")
+                .headers(h -> h.setBearerAuth(jwt))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(type).getResponseBody();
+    }
+
+    // the first named event, after the "subscribed" comment
+    private static <T> ServerSentEvent<T> next(Flux<ServerSentEvent<T>> events) {
+        return events.filter(e -> e.event() != null).blockFirst(Duration.ofSeconds(10));
+    }
+
+    private String login(String email, String password) {
+        return client.get().uri("/login")
+                .headers(h -> h.setBasicAuth(email, password))
+                .exchange().expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+    }
+}
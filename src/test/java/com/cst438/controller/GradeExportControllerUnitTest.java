@@ -0,0 +1,115 @@
+package com.cst438.controller;
+
+import com.cst438.dto.LoginDTO;
+import com.cst438.service.RegistrarServiceProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GradeExportControllerUnitTest {
+
+    @Autowired
+    private WebTestClient client;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    @BeforeEach
+    public void addGrades() {
+        // section 2 has enrollments 1, 2 and 3, add two assignments and some grades
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (810, 2, 'export, part 1', '2025-09-01'), (811, 2, 'export 2', '2025-09-08')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values (810, 1, 810, 88), (811, 2, 810, null)");
+    }
+
+    @AfterEach
+    public void removeGrades() {
+        jdbc.update("delete from assignment where assignment_id in (810, 811)");
+    }
+
+    @Test
+    public void testExportSectionCsv() {
+        String jwt = login("ted@csumb.edu", "ted2025");
+        String csv = client.get().uri("/sections/2/grades/export")
+                .headers(headers -> headers.setBearerAuth(jwt))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(new MediaType("text", "csv"))
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertNotNull(csv);
+        String[] lines = csv.split("\r\n");
+        assertTrue(lines[0].startsWith("year,semester,courseId,"));
+        // titles with a comma are quoted, a missing score is an empty last column
+        assertTrue(csv.contains(",1,5,sama,sama@csumb.edu,,810,\"export, part 1\",2025-09-01,88\r\n"));
+        assertTrue(csv.contains(",2,6,samb,samb@csumb.edu,,810,\"export, part 1\",2025-09-01,\r\n"));
+        assertTrue(csv.contains(",3,7,samc,samc@csumb.edu,,811,export 2,2025-09-08,\r\n"));
+        long rows = csv.lines().filter(line -> line.contains(",810,") || line.contains(",811,")).count();
+        assertEquals(6, rows);
+    }
+
+    @Test
+    public void testExportTermNdjson() {
+        String jwt = login("admin@csumb.edu", "admin");
+        String ndjson = client.get().uri("/grades/export?year=2025&semester=Fall&format=ndjson")
+                .headers(headers -> headers.setBearerAuth(jwt))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertNotNull(ndjson);
+        assertTrue(ndjson.endsWith("\n"));
+        assertTrue(ndjson.contains("{\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst599\",\"secId\":1,\"secNo\":2,"
+                + "\"instructorEmail\":\"ted@csumb.edu\",\"enrollmentId\":1,\"studentId\":5,\"studentName\":\"sama\","
+                + "\"studentEmail\":\"sama@csumb.edu\",\"grade\":null,\"assignmentId\":810,"
+                + "\"assignmentTitle\":\"export, part 1\",\"dueDate\":\"2025-09-01\",\"score\":88}\n"));
+        assertTrue(ndjson.contains("\"enrollmentId\":2,\"studentId\":6,\"studentName\":\"samb\",\"studentEmail\":\"samb@csumb.edu\","
+                + "\"grade\":null,\"assignmentId\":810,\"assignmentTitle\":\"export, part 1\",\"dueDate\":\"2025-09-01\",\"score\":null}"));
+    }
+
+    @Test
+    public void testExportChecks() {
+        String jwt = login("teddy@csumb.edu", "ted2025");
+        // not the instructor of section 2
+        client.get().uri("/sections/2/grades/export")
+                .headers(headers -> headers.setBearerAuth(jwt))
+                .exchange()
+                .expectStatus().isBadRequest();
+        // only an admin can export a term
+        client.get().uri("/grades/export?year=2025&semester=Fall")
+                .headers(headers -> headers.setBearerAuth(jwt))
+                .exchange()
+                .expectStatus().isForbidden();
+
+        String admin = login("admin@csumb.edu", "admin");
+        client.get().uri("/grades/export?year=2025&semester=Fall&format=xml")
+                .headers(headers -> headers.setBearerAuth(admin))
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/grades/export?year=2019&semester=Fall")
+                .headers(headers -> headers.setBearerAuth(admin))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private String login(String email, String password) {
+        LoginDTO login = client.get().uri("/login")
+                .headers(headers -> headers.setBasicAuth(email, password))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult().getResponseBody();
+        assertNotNull(login);
+        return login.jwt();
+    }
+}
@@ -0,0 +1,95 @@
+package com.cst438.controller;
+
+import com.cst438.service.RegistrarServiceProxy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/*
+ * /login while the password check pool is saturated.  the pool has one thread
+ * and a queue of one, and password checks block until the test releases them.
+ * the context has its own database, schema.sql cannot run twice on testdb.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loginbusy",
+        "login.password-threads=1",
+        "login.password-queue-size=1",
+        "login.password-timeout=30s"})
+public class LoginBusyTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    @MockitoBean
+    BCryptPasswordEncoder passwordEncoder;
+
+    @Test
+    public void busyLoginIsServiceUnavailable() throws Exception {
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.matches(any(), any())).thenAnswer(inv -> {
+            checking.countDown();
+            return release.await(30, TimeUnit.SECONDS);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CompletionService<EntityExchangeResult<byte[]>> waiting = new ExecutorCompletionService<>(executor);
+        try {
+            // the first login takes the password thread
+            Future<EntityExchangeResult<byte[]>> first = executor.submit(this::login);
+            assertTrue(checking.await(10, TimeUnit.SECONDS));
+
+            // of the next two, one waits in the queue and the other is turned away
+            waiting.submit(this::login);
+            waiting.submit(this::login);
+            EntityExchangeResult<byte[]> busy = waiting.poll(10, TimeUnit.SECONDS).get();
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, busy.getStatus());
+            assertEquals("30", busy.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            assertNull(busy.getResponseHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+
+            release.countDown();
+            assertEquals(HttpStatus.OK, first.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(HttpStatus.OK, waiting.poll(10, TimeUnit.SECONDS).get().getStatus());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void wrongPasswordIsUnauthorized() {
+        when(passwordEncoder.matches(any(), any())).thenReturn(false);
+
+        EntityExchangeResult<byte[]> result = login();
+
+        assertEquals(HttpStatus.UNAUTHORIZED, result.getStatus());
+        assertEquals("Basic realm=\"Realm\"", result.getResponseHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    private EntityExchangeResult<byte[]> login() {
+        return client.get().uri("/login")
+                .headers(h -> h.setBasicAuth("ted@csumb.edu", "ted2025"))
+                .exchange()
+                .expectBody().returnResult();
+    }
+}
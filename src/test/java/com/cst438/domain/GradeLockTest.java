@@ -0,0 +1,133 @@
+package com.cst438.domain;
+
+import com.cst438.dto.GradeDTO;
+import com.cst438.dto.LoginDTO;
+import com.cst438.service.RegistrarServiceProxy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * concurrent writes of grades.  GradeController.updateGrades locks the grades
+ * it updates, updates of two different grades of the same section must not wait
+ * for each other.  concurrent first reads of a grade sheet all create the
+ * missing grades, only one of them may insert each grade.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class GradeLockTest {
+
+    private static final int REQUESTS = 8;
+
+    @Autowired
+    private GradeRepository gradeRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private WebTestClient client;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    @BeforeEach
+    public void setup() {
+        // an assignment in section 2 with grades for enrollments 1 and 2
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (850, 2, 'lock hw', '2025-09-15')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values (850, 1, 850, null), (851, 2, 850, null)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.update("delete from grade where assignment_id in (850, 852)");
+        jdbc.update("delete from assignment where assignment_id in (850, 852)");
+    }
+
+    @Test
+    public void gradesOfOneSectionLockedSeparately() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() -> tx.executeWithoutResult(status -> {
+                lockAndLoad(850);
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            // grade 851 has the same section as 850, which the first transaction holds
+            Future<Integer> second = executor.submit(() -> tx.execute(status -> lockAndLoad(851).getSectionNo()));
+            assertEquals(2, second.get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            first.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentGradeSheets() throws Exception {
+        String jwt = client.get().uri("/login")
+                .headers(h -> h.setBasicAuth("ted@csumb.edu", "ted2025"))
+                .exchange().expectStatus().isOk()
+                .expectBody(LoginDTO.class).returnResult().getResponseBody().jwt();
+        int enrollments = jdbc.queryForObject("select count(*) from enrollment where section_no = 2", Integer.class);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            for (int round = 0; round < 10; round++) {
+                // a new assignment, none of its grades exist yet
+                jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (852, 2, 'sheet hw', '2025-09-15')");
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<GradeDTO>>> sheets = new ArrayList<>();
+                for (int i = 0; i < REQUESTS; i++) {
+                    sheets.add(executor.submit(() -> {
+                        start.await();
+                        return client.get().uri("/assignments/852/grades")
+                                .headers(h -> h.setBearerAuth(jwt))
+                                .exchange().expectStatus().isOk()
+                                .expectBodyList(GradeDTO.class).returnResult().getResponseBody();
+                    }));
+                }
+                start.countDown();
+                for (Future<List<GradeDTO>> sheet : sheets) {
+                    assertEquals(enrollments, sheet.get(30, TimeUnit.SECONDS).size());
+                }
+                assertEquals(enrollments, jdbc.queryForObject("select count(*) from grade where assignment_id = 852", Integer.class));
+                cleanup();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // what updateGrades does before it changes the score
+    private Section lockAndLoad(int gradeId) {
+        gradeRepository.lockByGradeIdIn(List.of(gradeId));
+        return gradeRepository.findByGradeIdIn(List.of(gradeId)).get(0).getEnrollment().getSection();
+    }
+}
@@ -0,0 +1,213 @@
+package com.cst438.domain;
+
+import com.cst438.service.IndexSetCheck;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * runs the hot repository queries against a large synthetic term, captures the
+ * SQL Hibernate generates for them and fails if the EXPLAIN of any statement
+ * scans one of the large tables.  term and course are small by nature and may
+ * be scanned.  the repositories are created with the naming strategies of
+ * Spring Boot, so the SQL is the SQL the application sends.
+ */
+public class QueryPlanTest {
+
+    private static final List<String> LARGE_TABLES =
+            List.of("SECTION", "USER_TABLE", "ENROLLMENT", "ASSIGNMENT", "GRADE");
+
+    private static final int SECTIONS = 1000;
+    private static final int STUDENTS = 10000;
+    private static final int ENROLLMENTS_PER_STUDENT = 3;
+    private static final int ASSIGNMENTS_PER_SECTION = 5;
+
+    private static JdbcTemplate jdbc;
+    private static EntityManagerFactory entityManagerFactory;
+    private static TransactionTemplate transaction;
+    // SQL of the statements Hibernate prepared, in order
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    private static SectionRepository sectionRepository;
+    private static TermRepository termRepository;
+    private static GradeRepository gradeRepository;
+    private static AssignmentRepository assignmentRepository;
+    private static EnrollmentRepository enrollmentRepository;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        // separate in-memory database with the application schema
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:queryplan;DB_CLOSE_DELAY=-1");
+        try (Connection c = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("schema.sql"));
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into term select x, 2000 + (x - 1) / 2, case when mod(x, 2) = 1 then 'Spring' else 'Fall' end, " +
+                "'2025-01-01', '2025-01-01', '2025-01-01', '2025-01-01', '2025-01-01' from system_range(1, 60)");
+        jdbc.update("insert into course (course_id, title, credits) select 'cst' || x, 'course ' || x, 4 from system_range(1, 200)");
+        jdbc.update("insert into user_table (id, name, email, password, type) select x, 'instructor ' || x, 'i' || x || '@csumb.edu', 'x', 'INSTRUCTOR' " +
+                "from system_range(1, 100)");
+        jdbc.update("insert into user_table (id, name, email, password, type) select 1000 + x, 'student ' || x, 's' || x || '@csumb.edu', 'x', 'STUDENT' " +
+                "from system_range(1, ?)", STUDENTS);
+        jdbc.update("insert into section (section_no, course_id, section_id, term_id, building, room, times, instructor_email) select x, 'cst' || (1 + mod(x, 200)), 1, 1 + mod(x, 60), '90', 'B104', 'M W', " +
+                "'i' || (1 + mod(x, 100)) || '@csumb.edu' from system_range(1, ?)", SECTIONS);
+        jdbc.update("insert into enrollment select x, null, 1 + mod(x * 7919, ?), 1001 + (x - 1) / ? " +
+                "from system_range(1, ?)", SECTIONS, ENROLLMENTS_PER_STUDENT, STUDENTS * ENROLLMENTS_PER_STUDENT);
+        jdbc.update("insert into assignment select x, 1 + (x - 1) / ?, 'assignment ' || x, dateadd(day, mod(x, 100), date '2025-01-01') " +
+                "from system_range(1, ?)", ASSIGNMENTS_PER_SECTION, SECTIONS * ASSIGNMENTS_PER_SECTION);
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) " +
+                "select row_number() over (), e.enrollment_id, a.assignment_id, 80 " +
+                "from enrollment e join assignment a on a.section_no = e.section_no");
+        jdbc.execute("analyze");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.cst438.domain");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        // no second-level cache, hibernate-jcache would share the JVM's default
+        // cache manager with the application context and close it with this factory
+        factory.setJpaPropertyMap(Map.of(
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, false,
+                AvailableSettings.USE_QUERY_CACHE, false,
+                AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName(),
+                AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        transaction = new TransactionTemplate(new JpaTransactionManager(entityManagerFactory));
+        JpaRepositoryFactory repositories = new JpaRepositoryFactory(
+                SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        sectionRepository = repositories.getRepository(SectionRepository.class);
+        termRepository = repositories.getRepository(TermRepository.class);
+        gradeRepository = repositories.getRepository(GradeRepository.class);
+        assignmentRepository = repositories.getRepository(AssignmentRepository.class);
+        enrollmentRepository = repositories.getRepository(EnrollmentRepository.class);
+    }
+
+    @AfterAll
+    public static void cleanup() {
+        entityManagerFactory.close();
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    public void sectionsForInstructor() {
+        assertNoLargeTableScan(() -> sectionRepository.findSectionDTOsByInstructorEmailAndYearAndSemester("i5@csumb.edu", 2010, "Fall"));
+    }
+
+    @Test
+    public void termByYearAndSemester() {
+        for (String sql : sql(() -> termRepository.findByYearAndSemester(2010, "Fall"))) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("TERM.tableScan"), plan);
+        }
+    }
+
+    @Test
+    public void gradeByStudentEmailAndAssignment() {
+        assertNoLargeTableScan(() -> gradeRepository.findByStudentEmailAndAssignmentId("s17@csumb.edu", 42));
+    }
+
+    @Test
+    public void gradeSheetByAssignment() {
+        assertNoLargeTableScan(() -> gradeRepository.findGradeSheetByAssignmentId(42));
+    }
+
+    // the lock and the load of GradeController.updateGrades
+    @Test
+    public void gradesById() {
+        assertNoLargeTableScan(() -> {
+            gradeRepository.lockByGradeIdIn(List.of(1, 2, 3));
+            gradeRepository.findByGradeIdIn(List.of(1, 2, 3));
+        });
+    }
+
+    @Test
+    public void gradesWithStudent() {
+        assertNoLargeTableScan(() -> gradeRepository.findWithStudentByGradeIdIn(List.of(1, 2, 3)));
+    }
+
+    @Test
+    public void studentAssignments() {
+        assertNoLargeTableScan(() -> assignmentRepository.findStudentAssignmentsByStudentEmailAndYearAndSemester("s17@csumb.edu", 2010, "Fall"));
+    }
+
+    @Test
+    public void enrollmentsBySection() {
+        assertNoLargeTableScan(() -> enrollmentRepository.findEnrollmentsBySectionNoOrderByStudentName(17));
+    }
+
+    @Test
+    public void enrollmentsWithoutGrade() {
+        assertNoLargeTableScan(() -> enrollmentRepository.findEnrollmentIdsWithoutGrade(42));
+    }
+
+    @Test
+    public void enrollmentsWithStudent() {
+        assertNoLargeTableScan(() -> enrollmentRepository.findWithStudentByEnrollmentIdIn(List.of(1, 2, 3)));
+    }
+
+    // the MySQL script of the current index set creates the same indexes as
+    // schema.sql, and schema.sql records the version IndexSetCheck expects
+    @Test
+    public void indexSetVersions() throws Exception {
+        assertEquals(IndexSetCheck.VERSION, jdbc.queryForObject("select max(version) from index_set", Integer.class));
+        assertEquals(indexes("schema.sql"), indexes("db/mysql/V" + IndexSetCheck.VERSION + "__index_set.sql"));
+    }
+
+    private static List<String> indexes(String script) throws Exception {
+        String sql = new ClassPathResource(script).getContentAsString(StandardCharsets.UTF_8);
+        return sql.lines().filter(l -> l.matches("create (unique )?index .*")).sorted().toList();
+    }
+
+    // the statements of the repository calls, run in a transaction that is rolled back
+    private static List<String> sql(Runnable calls) {
+        statements.clear();
+        transaction.executeWithoutResult(status -> {
+            calls.run();
+            status.setRollbackOnly();
+        });
+        assertFalse(statements.isEmpty(), "no statement was run");
+        return List.copyOf(statements);
+    }
+
+    // EXPLAIN does not need the parameter values
+    private static String explain(String sql) {
+        return jdbc.queryForObject("explain " + sql, String.class);
+    }
+
+    private static void assertNoLargeTableScan(Runnable calls) {
+        for (String sql : sql(calls)) {
+            String plan = explain(sql);
+            for (String table : LARGE_TABLES) {
+                assertFalse(plan.contains(table + ".tableScan"), table + " scanned:\n" + plan);
+            }
+        }
+    }
+}
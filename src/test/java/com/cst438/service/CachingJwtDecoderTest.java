@@ -0,0 +1,60 @@
+package com.cst438.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingJwtDecoderTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    // stand-in for NimbusJwtDecoder that counts signature checks
+    private final JwtDecoder delegate = token -> {
+        verifications.incrementAndGet();
+        if (token.startsWith("bad")) {
+            throw new BadJwtException("invalid signature");
+        }
+        Instant now = Instant.now();
+        Instant exp = token.startsWith("expired") ? now.minusSeconds(1) : now.plusSeconds(3600);
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("ted@csumb.edu")
+                .issuedAt(now.minusSeconds(10))
+                .expiresAt(exp)
+                .build();
+    };
+
+    @Test
+    public void verifiesEachTokenOnce() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, registry);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("ted@csumb.edu", decoder.decode("token-a").getSubject());
+        }
+        decoder.decode("token-b");
+
+        assertEquals(2, verifications.get());
+        assertEquals(4, registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count());
+        assertEquals(2, registry.get("jwt.verification").timer().count());
+    }
+
+    @Test
+    public void invalidAndExpiredTokensAreNotCached() {
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, 100, new SimpleMeterRegistry());
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("bad-token"));
+        decoder.decode("expired-token");
+        decoder.decode("expired-token");
+
+        assertEquals(4, verifications.get());
+    }
+}
@@ -0,0 +1,131 @@
+package com.cst438.service;
+
+import com.cst438.LoginProperties;
+import com.cst438.dto.GradeImportDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class GradeImporterTest {
+
+    private JdbcTemplate jdbc;
+    private GradeImporter importer;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        // separate in-memory database with the application schema and data.
+        // section 2 has enrollments 1, 2 and 3 for sama, samb and samc
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:gradeimport;DB_CLOSE_DELAY=-1");
+        try (Connection c = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("schema.sql"));
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("data.sql"));
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        importer = new GradeImporter(jdbc, new DataSourceTransactionManager(dataSource), new GradeStatistics(jdbc));
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (1, 2, 'hw1', '2025-09-01')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values (1, 1, 1, 50), (2, 2, 1, 60)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    public void insertsUpdatesAndSkips() throws Exception {
+        GradeImportDTO result = importer.importGrades(1, 2, csv("""
+                studentName,studentEmail,assignmentId,score
+                sama,SAMA@csumb.edu,1,95
+                samb,samb@csumb.edu,1,60
+                "c, sam",samc@csumb.edu,1,77
+                sama,sama@csumb.edu,2,10
+                """));
+
+        assertEquals(new GradeImportDTO(4, 1, 1, 1, 1, 0, List.of()), result);
+        assertEquals(List.of(95, 60, 77), scores());
+        // the new grade got an id from grade_seq
+        assertTrue(jdbc.queryForObject("select grade_id from grade where enrollment_id = 3", Integer.class) >= 11951);
+    }
+
+    @Test
+    public void reportsEveryBadRowAndWritesNothing() throws Exception {
+        GradeImportDTO result = importer.importGrades(1, 2, csv("""
+                studentEmail,score
+                sama@csumb.edu,101
+                samb@csumb.edu,A
+                nobody@csumb.edu,80
+                samc@csumb.edu,70
+                samc@csumb.edu,71
+                ,5
+                """));
+
+        assertEquals(6, result.rows());
+        assertEquals(5, result.errorCount());
+        assertEquals(List.of(2, 3, 4, 6, 7), result.errors().stream().map(e -> e.line()).toList());
+        assertEquals("score must be between 0 and 100", result.errors().get(0).message());
+        assertEquals("score must be a whole number", result.errors().get(1).message());
+        assertEquals("student is not enrolled in the section", result.errors().get(2).message());
+        assertEquals("student appears more than once", result.errors().get(3).message());
+        assertEquals("student email is missing", result.errors().get(4).message());
+        assertEquals(List.of(50, 60), scores());
+    }
+
+    @Test
+    public void headerIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> importer.importGrades(1, 2, csv("sama@csumb.edu,90\n")));
+        assertThrows(IllegalArgumentException.class, () -> importer.importGrades(1, 2, csv("")));
+    }
+
+    @Test
+    public void byteOrderMarkBeforeHeader() throws Exception {
+        GradeImportDTO result = importer.importGrades(1, 2, csv("\uFEFFstudentEmail,score\r\nsama@csumb.edu,88\r\n"));
+
+        assertEquals(new GradeImportDTO(1, 0, 1, 0, 0, 0, List.of()), result);
+        assertEquals(List.of(88, 60), scores());
+    }
+
+    @Test
+    public void largeSection() throws Exception {
+        // one synthetic section with 5000 students and one ungraded assignment
+        SyntheticTermSeeder seeder = new SyntheticTermSeeder(jdbc, new UserDetailsCache(
+                new LoginProperties(100, Duration.ofMinutes(5), 1, 10, Duration.ofSeconds(5))), mock(ReferenceDataCache.class));
+        seeder.seed(5000, 1, 1, 438);
+        int assignmentId = SyntheticTermSeeder.ASSIGNMENT_BASE;
+        StringBuilder file = new StringBuilder("studentEmail,score\r\n");
+        for (int i = 0; i < 5000; i++) {
+            file.append('s').append(i).append("@synthetic.csumb.edu,").append(i % 101).append("\r\n");
+        }
+
+        // a generous bound, the batched import takes well under a second
+        GradeImportDTO result = assertTimeout(Duration.ofSeconds(30),
+                () -> importer.importGrades(assignmentId, SyntheticTermSeeder.SECTION_BASE, csv(file.toString())));
+
+        assertEquals(0, result.errorCount());
+        assertEquals(5000, result.inserted());
+        assertEquals(5000, jdbc.queryForObject("select count(distinct grade_id) from grade where assignment_id = ?",
+                Integer.class, assignmentId));
+        assertEquals(5000, new GradeStatistics(jdbc).statistics(assignmentId, "Assignment 1", 5000).graded());
+    }
+
+    private List<Integer> scores() {
+        return jdbc.queryForList("select score from grade where assignment_id = 1 order by enrollment_id", Integer.class);
+    }
+
+    private static ByteArrayInputStream csv(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,154 @@
+package com.cst438.service;
+
+import com.cst438.dto.AssignmentStatisticsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradeStatisticsTest {
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactionTemplate;
+    private GradeStatistics statistics;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        // separate in-memory database with the application schema and data.
+        // section 2 has enrollments 1, 2 and 3
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:gradestatistics;DB_CLOSE_DELAY=-1");
+        try (Connection c = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("schema.sql"));
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("data.sql"));
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        statistics = new GradeStatistics(jdbc);
+        jdbc.update("insert into assignment (assignment_id, section_no, title, due_date) values (1, 2, 'hw1', '2025-09-01'), (2, 2, 'hw2', '2025-09-08')");
+        jdbc.update("insert into grade (grade_id, enrollment_id, assignment_id, score) values " +
+                "(1, 1, 1, null), (2, 2, 1, null), (3, 3, 1, null), (4, 1, 2, null), (5, 2, 2, null), (6, 3, 2, null)");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    public void summarize() {
+        int[] histogram = new int[101];
+        histogram[70] = 1;
+        histogram[80] = 1;
+        histogram[90] = 1;
+        histogram[100] = 1;
+        AssignmentStatisticsDTO s = GradeStatistics.summarize(1, "hw1", 6, histogram);
+
+        assertEquals(4, s.graded());
+        assertEquals(2, s.missing());
+        assertEquals(85.0, s.mean());
+        assertEquals(85.0, s.median());
+        assertEquals(Math.sqrt(125), s.standardDeviation(), 1e-9);
+        assertEquals(70, s.low());
+        assertEquals(100, s.high());
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0, 0, 1, 1, 2}, s.distribution());
+
+        histogram[70] = 2;
+        assertEquals(80.0, GradeStatistics.summarize(1, "hw1", 6, histogram).median());
+
+        AssignmentStatisticsDTO empty = GradeStatistics.summarize(1, "hw1", 3, new int[101]);
+        assertEquals(3, empty.missing());
+        assertNull(empty.mean());
+        assertNull(empty.median());
+    }
+
+    @Test
+    public void scoreChangesAndRetract() {
+        setScore(1, 90);
+        setScore(2, 70);
+        setScore(3, 70);
+        setScore(4, 50);
+        setScore(2, 80);
+        setScore(3, null);
+
+        AssignmentStatisticsDTO s = statistics.statistics(1, "hw1", 3);
+        assertEquals(2, s.graded());
+        assertEquals(1, s.missing());
+        assertEquals(85.0, s.mean());
+        assertHistogramMatchesGrades();
+
+        // enrollment 1 is dropped, its grades go with it
+        transactionTemplate.executeWithoutResult(status -> {
+            statistics.retractEnrollments(List.of(1));
+            jdbc.update("delete from enrollment where enrollment_id = 1");
+        });
+        assertEquals(80.0, statistics.statistics(1, "hw1", 2).mean());
+        assertEquals(0, statistics.statistics(2, "hw2", 2).graded());
+        assertHistogramMatchesGrades();
+
+        // the user of enrollment 2 is deleted
+        transactionTemplate.executeWithoutResult(status -> {
+            statistics.retractUsers(List.of(6));
+            jdbc.update("delete from user_table where id = 6");
+        });
+        assertEquals(0, statistics.statistics(1, "hw1", 1).graded());
+        assertHistogramMatchesGrades();
+    }
+
+    @Test
+    public void concurrentGrading() throws Exception {
+        // each change locks the grade row, updates it and applies the delta,
+        // the same steps GradeController.updateGrades and GradeImporter take
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Random random = new Random(t);
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 200; i++) {
+                    int gradeId = 1 + random.nextInt(6);
+                    Integer score = random.nextInt(10) == 0 ? null : random.nextInt(101);
+                    setScore(gradeId, score);
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        pool.shutdown();
+        assertHistogramMatchesGrades();
+    }
+
+    private void setScore(int gradeId, Integer score) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Object> row = jdbc.queryForMap("select assignment_id, score from grade where grade_id = ? for update", gradeId);
+            jdbc.update("update grade set score = ? where grade_id = ?", score, gradeId);
+            statistics.apply(List.of(new GradeStatistics.ScoreChange(
+                    (Integer) row.get("ASSIGNMENT_ID"), (Integer) row.get("SCORE"), score)));
+        });
+    }
+
+    private void assertHistogramMatchesGrades() {
+        assertEquals(
+                jdbc.queryForList("select assignment_id, score, count(*) from grade where score is not null " +
+                        "group by assignment_id, score order by assignment_id, score"),
+                jdbc.queryForList("select assignment_id, score, graded from grade_histogram where graded <> 0 " +
+                        "order by assignment_id, score").stream()
+                        .map(r -> Map.of("ASSIGNMENT_ID", r.get("ASSIGNMENT_ID"), "SCORE", r.get("SCORE"), "COUNT(*)", ((Number) r.get("GRADED")).longValue()))
+                        .toList());
+    }
+}
@@ -0,0 +1,60 @@
+package com.cst438.service;
+
+import com.cst438.domain.SectionRepository;
+import com.cst438.domain.TermRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ReferenceDataCacheTest {
+
+    @Autowired
+    private TermRepository termRepository;
+    @Autowired
+    private SectionRepository sectionRepository;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    RegistrarServiceProxy registrarService;
+
+    @Test
+    public void termLookupIsCached() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        termRepository.findByYearAndSemester(2025, "Fall");
+        long hits = statistics.getQueryCacheHitCount();
+        long queries = statistics.getPrepareStatementCount();
+
+        assertEquals(10, termRepository.findByYearAndSemester(2025, "Fall").getTermId());
+        assertEquals(hits + 1, statistics.getQueryCacheHitCount());
+        assertEquals(queries, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void jdbcChangesAreEvicted() {
+        // section 1 of data.sql, read once to put it in the cache
+        String instructor = sectionRepository.findById(1).orElseThrow().getInstructorEmail();
+        jdbc.update("update section set instructor_email = 'teddy@csumb.edu' where section_no = 1");
+        try {
+            // Hibernate does not see the JDBC update
+            assertEquals(instructor, sectionRepository.findById(1).orElseThrow().getInstructorEmail());
+            referenceDataCache.evictSection(1);
+            assertEquals("teddy@csumb.edu", sectionRepository.findById(1).orElseThrow().getInstructorEmail());
+        } finally {
+            jdbc.update("update section set instructor_email = ? where section_no = 1", instructor);
+            referenceDataCache.evictSection(1);
+        }
+    }
+}
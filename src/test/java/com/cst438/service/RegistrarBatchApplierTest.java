@@ -0,0 +1,181 @@
+package com.cst438.service;
+
+import com.cst438.LoginProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class RegistrarBatchApplierTest {
+
+    private JdbcTemplate jdbc;
+    private RegistrarBatchApplier applier;
+    private ReferenceDataCache referenceDataCache;
+    private RegistrarServiceProxy registrar;
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        // separate in-memory database with the application schema
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:registrarbatch;DB_CLOSE_DELAY=-1");
+        try (Connection c = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("schema.sql"));
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("insert into term values (10, 2025, 'Fall', '2025-04-01', '2025-09-30', '2025-09-30', '2025-08-20', '2025-12-17')");
+        referenceDataCache = mock(ReferenceDataCache.class);
+        applier = new RegistrarBatchApplier(jdbc, new DataSourceTransactionManager(dataSource), userDetailsCache(),
+                new GradeStatistics(jdbc), referenceDataCache, 4);
+        registrar = new RegistrarServiceProxy();
+        registrar.objectMapper = new ObjectMapper();
+        registrar.createJsonReaders();
+        registry = new SimpleMeterRegistry();
+        registrar.meterRegistry = registry;
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    public void appliesBatchInOrder() {
+        List<String> messages = new ArrayList<>();
+        messages.add("addCourse {\"courseId\":\"cst438\",\"title\":\"Software Engineering\",\"credits\":4}");
+        messages.add("addSection {\"secNo\":100,\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst438\",\"secId\":1," +
+                "\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}");
+        for (int i = 0; i < 200; i++) {
+            messages.add("addUser {\"id\":" + (1000 + i) + ",\"name\":\"s" + i + "\",\"email\":\"s" + i +
+                    "@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}");
+        }
+        // later messages for the same user must win
+        messages.add("updateUser {\"id\":1000,\"name\":\"renamed\",\"email\":\"s0@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}");
+        messages.add("deleteUser 1001");
+        for (int i = 0; i < 200; i++) {
+            if (i != 1) {
+                messages.add("addEnrollment {\"enrollmentId\":" + (5000 + i) + ",\"sectionNo\":100,\"studentId\":" + (1000 + i) + "}");
+            }
+        }
+
+        applier.apply(messages, registrar);
+
+        assertEquals(1, jdbc.queryForObject("select count(*) from section where section_no = 100 and term_id = 10", Integer.class));
+        assertEquals(199, jdbc.queryForObject("select count(*) from user_table", Integer.class));
+        assertEquals("renamed", jdbc.queryForObject("select name from user_table where id = 1000", String.class));
+        assertEquals(199, jdbc.queryForObject("select count(*) from enrollment where section_no = 100", Integer.class));
+        // the course and section were written with JDBC and evicted from the second-level cache
+        verify(referenceDataCache).evictCourse("cst438");
+        verify(referenceDataCache).evictSection(100);
+    }
+
+    @Test
+    public void badMessageKeepsItsPlace() {
+        RegistrarServiceProxy spy = spy(registrar);
+        List<Integer> usersSeen = new ArrayList<>();
+        doAnswer(inv -> usersSeen.add(jdbc.queryForObject("select count(*) from user_table", Integer.class)))
+                .when(spy).receiveFromRegistrar(anyString());
+        List<String> messages = List.of(
+                "addUser {\"id\":1000,\"name\":\"s0\",\"email\":\"s0@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}",
+                "addUser {\"id\":",
+                "addUser {\"id\":1001,\"name\":\"s1\",\"email\":\"s1@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}");
+
+        applier.apply(messages, spy);
+
+        // the bad message was handed on after the user before it was written, and before the one after it
+        assertEquals(List.of(1), usersSeen);
+        assertEquals(2, jdbc.queryForObject("select count(*) from user_table", Integer.class));
+    }
+
+    @Test
+    public void updatesExistingRows() {
+        jdbc.update("insert into course (course_id, title, credits) values ('cst438', 'SE', 4)");
+        applier.apply(List.of(
+                "addSection {\"secNo\":100,\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst438\",\"secId\":1," +
+                        "\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}"),
+                registrar);
+
+        applier.apply(List.of(
+                "updateCourse {\"courseId\":\"cst438\",\"title\":\"Software Engineering\",\"credits\":4}",
+                "updateSection {\"secNo\":100,\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst438\",\"secId\":1," +
+                        "\"building\":\"90\",\"room\":\"B118\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}",
+                // no such term, the section is left as it is
+                "updateSection {\"secNo\":100,\"year\":2030,\"semester\":\"Fall\",\"courseId\":\"cst438\",\"secId\":1," +
+                        "\"building\":\"90\",\"room\":\"B999\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}"),
+                registrar);
+
+        assertEquals("Software Engineering", jdbc.queryForObject("select title from course where course_id = 'cst438'", String.class));
+        assertEquals("B118", jdbc.queryForObject("select room from section where section_no = 100", String.class));
+        assertEquals(1, jdbc.queryForObject("select count(*) from section", Integer.class));
+        assertEquals(1, messages("updateSection", "success"));
+        assertEquals(1, messages("updateSection", "failure"));
+    }
+
+    @Test
+    public void batchWithoutUpdateCounts() {
+        RegistrarBatchApplier noInfo = new RegistrarBatchApplier(new NoInfoJdbcTemplate(jdbc.getDataSource()),
+                new DataSourceTransactionManager(jdbc.getDataSource()), userDetailsCache(),
+                new GradeStatistics(jdbc), referenceDataCache, 4);
+        jdbc.update("insert into course (course_id, title, credits) values ('cst438', 'SE', 4)");
+
+        noInfo.apply(List.of(
+                "updateCourse {\"courseId\":\"cst438\",\"title\":\"Software Engineering\",\"credits\":4}",
+                "addCourse {\"courseId\":\"cst363\",\"title\":\"Databases\",\"credits\":4}",
+                "addSection {\"secNo\":100,\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst438\",\"secId\":1," +
+                        "\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}",
+                // no such term
+                "addSection {\"secNo\":101,\"year\":2030,\"semester\":\"Fall\",\"courseId\":\"cst438\",\"secId\":2," +
+                        "\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 1-3\",\"instructorEmail\":\"ted@csumb.edu\"}"),
+                registrar);
+
+        assertEquals("Software Engineering", jdbc.queryForObject("select title from course where course_id = 'cst438'", String.class));
+        assertEquals(2, jdbc.queryForObject("select count(*) from course", Integer.class));
+        assertEquals(1, jdbc.queryForObject("select count(*) from section", Integer.class));
+        assertEquals(1, messages("addSection", "success"));
+        assertEquals(1, messages("addSection", "failure"));
+    }
+
+    private double messages(String command, String outcome) {
+        return registry.counter("gradebook.registrar.messages", "command", command, "outcome", outcome).count();
+    }
+
+    // reports no count for the rows of a batch, as MySQL does with rewriteBatchedStatements=true
+    static class NoInfoJdbcTemplate extends JdbcTemplate {
+
+        NoInfoJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            int[] counts = super.batchUpdate(sql, batchArgs);
+            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            return counts;
+        }
+    }
+
+    private static UserDetailsCache userDetailsCache() {
+        return new UserDetailsCache(new LoginProperties(100, Duration.ofMinutes(5), 1, 10, Duration.ofSeconds(5)));
+    }
+}
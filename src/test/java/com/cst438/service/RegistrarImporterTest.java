@@ -0,0 +1,141 @@
+package com.cst438.service;
+
+import com.cst438.dto.RegistrarImportDTO;
+import com.cst438.LoginProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class RegistrarImporterTest {
+
+    private JdbcTemplate jdbc;
+    private RegistrarImporter importer;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        // separate in-memory database with the application schema
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:registrarimport;DB_CLOSE_DELAY=-1");
+        try (Connection c = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("schema.sql"));
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        // small chunk size so the import commits several chunks
+        importer = new RegistrarImporter(jdbc, new DataSourceTransactionManager(dataSource), new ObjectMapper(), userDetailsCache(),
+                mock(ReferenceDataCache.class), 7);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    public void importSnapshot() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        ndjson.append("{\"entity\":\"term\",\"termId\":10,\"year\":2025,\"semester\":\"Fall\",\"addDate\":\"2025-04-01\"," +
+                "\"addDeadline\":\"2025-09-30\",\"dropDeadline\":\"2025-09-30\",\"startDate\":\"2025-08-20\",\"endDate\":\"2025-12-17\"}\n");
+        ndjson.append("{\"entity\":\"course\",\"courseId\":\"cst438\",\"title\":\"Software Engineering\",\"credits\":4}\n");
+        ndjson.append("{\"entity\":\"section\",\"secNo\":100,\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst438\"," +
+                "\"secId\":1,\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}\n");
+        for (int i = 0; i < 50; i++) {
+            ndjson.append("{\"entity\":\"user\",\"id\":").append(1000 + i).append(",\"name\":\"s").append(i)
+                    .append("\",\"email\":\"s").append(i).append("@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}\n");
+        }
+        for (int i = 0; i < 50; i++) {
+            ndjson.append("{\"entity\":\"enrollment\",\"enrollmentId\":").append(5000 + i)
+                    .append(",\"grade\":null,\"sectionNo\":100,\"studentId\":").append(1000 + i).append("}\n");
+        }
+
+        RegistrarImportDTO result = importer.importSnapshot(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new RegistrarImportDTO(1, 1, 1, 50, 50, 0, List.of()), result);
+        assertEquals(50, jdbc.queryForObject("select count(*) from enrollment where section_no = 100", Integer.class));
+        assertEquals(10, jdbc.queryForObject("select term_id from section where section_no = 100", Integer.class));
+    }
+
+    @Test
+    public void rowsInAnyOrder() throws Exception {
+        RegistrarImportDTO result = importer.importSnapshot(
+                new ByteArrayInputStream(rowsInAnyOrderSnapshot().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new RegistrarImportDTO(1, 1, 1, 10, 10, 1, List.of("line 22: section 101, no term Spring 2026")), result);
+        assertEquals(10, jdbc.queryForObject("select count(*) from enrollment where section_no = 100", Integer.class));
+    }
+
+    @Test
+    public void importWithoutUpdateCounts() throws Exception {
+        RegistrarImporter noInfo = new RegistrarImporter(new RegistrarBatchApplierTest.NoInfoJdbcTemplate(jdbc.getDataSource()),
+                new DataSourceTransactionManager(jdbc.getDataSource()), new ObjectMapper(), userDetailsCache(),
+                mock(ReferenceDataCache.class), 7);
+
+        RegistrarImportDTO result = noInfo.importSnapshot(
+                new ByteArrayInputStream(rowsInAnyOrderSnapshot().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new RegistrarImportDTO(1, 1, 1, 10, 10, 1, List.of("line 22: section 101, no term Spring 2026")), result);
+        assertEquals(10, jdbc.queryForObject("select count(*) from enrollment where section_no = 100", Integer.class));
+    }
+
+    // enrollments first, more of them than a chunk, and a section of a term that does not exist
+    private static String rowsInAnyOrderSnapshot() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            ndjson.append("{\"entity\":\"enrollment\",\"enrollmentId\":").append(5000 + i)
+                    .append(",\"sectionNo\":100,\"studentId\":").append(1000 + i).append("}\n");
+        }
+        for (int i = 0; i < 10; i++) {
+            ndjson.append("{\"entity\":\"user\",\"id\":").append(1000 + i).append(",\"name\":\"s").append(i)
+                    .append("\",\"email\":\"s").append(i).append("@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}\n");
+        }
+        ndjson.append("{\"entity\":\"section\",\"secNo\":100,\"year\":2025,\"semester\":\"Fall\",\"courseId\":\"cst438\"," +
+                "\"secId\":1,\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 10-12\",\"instructorEmail\":\"ted@csumb.edu\"}\n");
+        ndjson.append("{\"entity\":\"section\",\"secNo\":101,\"year\":2026,\"semester\":\"Spring\",\"courseId\":\"cst438\"," +
+                "\"secId\":2,\"building\":\"90\",\"room\":\"B104\",\"times\":\"M W 1-3\",\"instructorEmail\":\"ted@csumb.edu\"}\n");
+        ndjson.append("{\"entity\":\"course\",\"courseId\":\"cst438\",\"title\":\"Software Engineering\",\"credits\":4}\n");
+        ndjson.append(TERM);
+        return ndjson.toString();
+    }
+
+    @Test
+    public void rejectedRowNamesItsLine() {
+        // line 2 is blank and the user spans lines 3 and 4, the enrollment on line 5 has no section
+        String ndjson = TERM + "\n" +
+                "{\"entity\":\"user\",\"id\":1000,\"name\":\"s0\",\n\"email\":\"s0@csumb.edu\",\"type\":\"STUDENT\",\"password\":\"x\"}\n" +
+                "{\"entity\":\"enrollment\",\"enrollmentId\":5000,\"sectionNo\":100,\"studentId\":1000}\n";
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class, () -> importer.importSnapshot(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))));
+        assertTrue(e.getMessage().startsWith("line 5: invalid enrollment"), e.getMessage());
+    }
+
+    @Test
+    public void unknownEntity() {
+        String ndjson = "{\"entity\":\"building\",\"id\":1}\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> importer.importSnapshot(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8))));
+        assertEquals("line 1: unknown entity building", e.getMessage());
+    }
+
+    private static final String TERM = "{\"entity\":\"term\",\"termId\":10,\"year\":2025,\"semester\":\"Fall\"," +
+            "\"addDate\":\"2025-04-01\",\"addDeadline\":\"2025-09-30\",\"dropDeadline\":\"2025-09-30\"," +
+            "\"startDate\":\"2025-08-20\",\"endDate\":\"2025-12-17\"}\n";
+
+    private static UserDetailsCache userDetailsCache() {
+        return new UserDetailsCache(new LoginProperties(100, Duration.ofMinutes(5), 1, 10, Duration.ofSeconds(5)));
+    }
+}
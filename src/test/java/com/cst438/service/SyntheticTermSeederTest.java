@@ -0,0 +1,87 @@
+package com.cst438.service;
+
+import com.cst438.LoginProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class SyntheticTermSeederTest {
+
+    private JdbcTemplate jdbc;
+    private SyntheticTermSeeder seeder;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        // separate in-memory database with the application schema and data
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:synthetic;DB_CLOSE_DELAY=-1");
+        try (Connection c = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("schema.sql"));
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("data.sql"));
+        }
+        jdbc = new JdbcTemplate(dataSource);
+        seeder = new SyntheticTermSeeder(jdbc, new UserDetailsCache(
+                new LoginProperties(100, Duration.ofMinutes(5), 1, 10, Duration.ofSeconds(5))), mock(ReferenceDataCache.class));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        jdbc.execute("drop all objects");
+    }
+
+    @Test
+    public void seedIsReproducibleAndSkewed() {
+        SyntheticTermSeeder.Summary first = seeder.seed(2000, 100, 6, 7);
+        List<Integer> sizes = sectionSizes();
+        long checksum = checksum();
+
+        assertEquals(100, first.sections());
+        assertEquals(first.enrollments(), jdbc.queryForObject("select count(*) from enrollment where enrollment_id >= 10000000", Integer.class));
+        assertEquals(600, jdbc.queryForObject("select count(*) from assignment where section_no >= 1000000", Integer.class));
+        assertEquals(first.grades(), jdbc.queryForObject("select count(*) from grade where grade_id >= 100000000", Integer.class));
+        assertTrue(first.grades() > 0);
+        // the largest section is several times the median
+        assertTrue(sizes.get(0) > 4 * sizes.get(sizes.size() / 2), sizes.toString());
+
+        SyntheticTermSeeder.Summary second = seeder.seed(2000, 100, 6, 7);
+        assertEquals(first, second);
+        assertEquals(sizes, sectionSizes());
+        assertEquals(checksum, checksum());
+    }
+
+    @Test
+    public void resetKeepsOtherData() {
+        // rows of the application with ids in the synthetic ranges are not synthetic
+        jdbc.update("insert into user_table (id, name, email, password, type) values (5000000, 'high', 'high@csumb.edu', 'x', 'STUDENT')");
+        jdbc.update("insert into section (section_no, course_id, section_id, term_id, instructor_email) values (5000000, 'cst599', 9, 10, 'ted@csumb.edu')");
+        jdbc.update("insert into enrollment (enrollment_id, grade, section_no, user_id) values (50000000, null, 5000000, 5000000)");
+        seeder.seed(500, 20, 3, 1);
+        seeder.reset();
+
+        assertEquals(8, jdbc.queryForObject("select count(*) from user_table", Integer.class));
+        assertEquals(3, jdbc.queryForObject("select count(*) from section", Integer.class));
+        assertEquals(4, jdbc.queryForObject("select count(*) from enrollment", Integer.class));
+        assertEquals(6, jdbc.queryForObject("select count(*) from course", Integer.class));
+        assertEquals(0, jdbc.queryForObject("select count(*) from assignment", Integer.class));
+    }
+
+    private List<Integer> sectionSizes() {
+        return jdbc.queryForList("select count(*) from enrollment where section_no >= 1000000 " +
+                "group by section_no order by count(*) desc", Integer.class);
+    }
+
+    private long checksum() {
+        return jdbc.queryForObject("select sum(cast(e.section_no as bigint) * e.user_id) + " +
+                "(select sum(cast(coalesce(score, -1) as bigint) * grade_id) from grade) from enrollment e", Long.class);
+    }
+}